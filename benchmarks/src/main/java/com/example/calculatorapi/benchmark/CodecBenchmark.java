@@ -0,0 +1,99 @@
+package com.example.calculatorapi.benchmark;
+
+import com.example.calculatorapi.codec.BinaryCodec;
+import com.example.calculatorapi.codec.WireFormat;
+import com.example.calculatorapi.codec.WireFormatDeserializer;
+import com.example.calculatorapi.codec.WireFormatSerializer;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of the contract DTOs through the Kafka (de)serializers the services
+ * configure, in the default JSON format (with Spring type headers) and in {@link BinaryCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final String TOPIC = "calc-requests";
+
+    private final CalculationRequest request = new CalculationRequest(
+        "multiplication", new BigDecimal("1234.56"), new BigDecimal("78.90"), UUID.randomUUID().toString());
+    private final CalculationResponse response = new CalculationResponse(
+        UUID.randomUUID().toString(), new BigDecimal("97406.8"), null);
+
+    @Param({"JSON", "BINARY"})
+    private WireFormat format;
+
+    private WireFormatSerializer<CalculationRequest> requestSerializer;
+    private WireFormatDeserializer<CalculationRequest> requestDeserializer;
+    private WireFormatSerializer<CalculationResponse> responseSerializer;
+    private WireFormatDeserializer<CalculationResponse> responseDeserializer;
+
+    private RecordHeaders requestHeaders;
+    private byte[] serializedRequest;
+    private RecordHeaders responseHeaders;
+    private byte[] serializedResponse;
+
+    @Setup
+    public void setUp() {
+        JsonDeserializer<CalculationRequest> jsonRequestDeserializer = new JsonDeserializer<>(CalculationRequest.class);
+        jsonRequestDeserializer.addTrustedPackages("*");
+        JsonDeserializer<CalculationResponse> jsonResponseDeserializer = new JsonDeserializer<>(CalculationResponse.class);
+        jsonResponseDeserializer.addTrustedPackages("*");
+
+        requestSerializer = new WireFormatSerializer<>(new JsonSerializer<>(), BinaryCodec::encode, format);
+        requestDeserializer = new WireFormatDeserializer<>(jsonRequestDeserializer, BinaryCodec::decodeRequest);
+        responseSerializer = new WireFormatSerializer<>(new JsonSerializer<>(), BinaryCodec::encode, format);
+        responseDeserializer = new WireFormatDeserializer<>(jsonResponseDeserializer, BinaryCodec::decodeResponse);
+
+        requestHeaders = new RecordHeaders();
+        serializedRequest = requestSerializer.serialize(TOPIC, requestHeaders, request);
+        responseHeaders = new RecordHeaders();
+        serializedResponse = responseSerializer.serialize(TOPIC, responseHeaders, response);
+
+        System.out.printf("%n%s message size in bytes (value + headers): request=%d, response=%d%n", format,
+            serializedRequest.length + headerBytes(requestHeaders),
+            serializedResponse.length + headerBytes(responseHeaders));
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() {
+        return requestSerializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public CalculationRequest deserializeRequest() {
+        return requestDeserializer.deserialize(TOPIC, requestHeaders, serializedRequest);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() {
+        return responseSerializer.serialize(TOPIC, new RecordHeaders(), response);
+    }
+
+    @Benchmark
+    public CalculationResponse deserializeResponse() {
+        return responseDeserializer.deserialize(TOPIC, responseHeaders, serializedResponse);
+    }
+
+    private static int headerBytes(RecordHeaders headers) {
+        int size = 0;
+        for (var header : headers) {
+            size += header.key().length() + header.value().length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.calculatorapi.benchmark;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+import java.io.OutputStream;
+
+/**
+ * Encodes every event like a console appender would, then throws the bytes away, so a
+ * benchmark measures the cost of logging rather than of the terminal.
+ */
+public class DiscardingAppender extends OutputStreamAppender<ILoggingEvent> {
+
+    @Override
+    public void start() {
+        setOutputStream(OutputStream.nullOutputStream());
+        super.start();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.calculatorapi.benchmark;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.kafka.KafkaProfile;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculation requests through the embedded KRaft broker of spring-kafka-test, with the
+ * producer and consumer both on one {@link KafkaProfile}. {@code roundTrip} sends a single
+ * request and waits until the consumer has received it, so its sampled percentiles show
+ * the p99 one waiting caller sees; {@code burst} sends {@value #BURST} requests back to
+ * back and waits for all of them, which shows the throughput the profile sustains.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class KafkaProfileBenchmark {
+
+    private static final String TOPIC = "calc-requests";
+    private static final int BURST = 1000;
+    private static final BigDecimal A = new BigDecimal("1234.56");
+    private static final BigDecimal B = new BigDecimal("78.90");
+
+    @Param({"DEFAULT", "LOW_LATENCY", "HIGH_THROUGHPUT"})
+    private KafkaProfile profile;
+
+    private final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private EmbeddedKafkaBroker broker;
+    private Producer<String, CalculationRequest> producer;
+    private Thread poller;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, Object> producerProps = new HashMap<>(profile.producerProps());
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producer = new KafkaProducer<>(producerProps, new StringSerializer(), new JsonSerializer<>());
+
+        JsonDeserializer<CalculationRequest> deserializer = new JsonDeserializer<>(CalculationRequest.class);
+        deserializer.addTrustedPackages("*");
+        Map<String, Object> consumerProps = new HashMap<>(profile.consumerProps());
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "benchmark-" + UUID.randomUUID());
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Consumer<String, CalculationRequest> consumer =
+            new KafkaConsumer<>(consumerProps, new StringDeserializer(), deserializer);
+
+        CountDownLatch assigned = new CountDownLatch(1);
+        running = true;
+        poller = Thread.ofPlatform().name("benchmark-consumer").start(() -> {
+            try (consumer) {
+                consumer.subscribe(List.of(TOPIC), new ConsumerRebalanceListener() {
+                    @Override
+                    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                    }
+
+                    @Override
+                    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                        assigned.countDown();
+                    }
+                });
+                while (running) {
+                    for (ConsumerRecord<String, CalculationRequest> record : consumer.poll(Duration.ofMillis(100))) {
+                        CompletableFuture<Void> received = pending.remove(record.key());
+                        if (received != null) {
+                            received.complete(null);
+                        }
+                    }
+                }
+            }
+        });
+        if (!assigned.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Consumer was not assigned any partition");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        poller.join();
+        producer.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void roundTrip() throws Exception {
+        send().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BURST)
+    public void burst() throws Exception {
+        CompletableFuture<?>[] received = new CompletableFuture<?>[BURST];
+        for (int i = 0; i < BURST; i++) {
+            received[i] = send();
+        }
+        CompletableFuture.allOf(received).get(30, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<Void> send() {
+        String id = Long.toString(sequence.incrementAndGet());
+        CompletableFuture<Void> received = new CompletableFuture<>();
+        pending.put(id, received);
+        producer.send(new ProducerRecord<>(TOPIC, id, new CalculationRequest("sum", A, B, id)));
+        return received;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.calculatorapi.benchmark;
+
+import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationBenchmark {
+
+    @Param({"sum", "subtraction", "multiplication", "division"})
+    private String operationType;
+
+    // INTEGER: small integers, AMOUNT: two-decimal amounts, LARGE: beyond the long fast path
+    @Param({"INTEGER", "AMOUNT", "LARGE"})
+    private String operandSize;
+
+    private CalculatorOperation operation;
+    private BigDecimal a;
+    private BigDecimal b;
+
+    @Setup
+    public void setUp() {
+        operation = switch (operationType) {
+            case "sum" -> new SumOperation();
+            case "subtraction" -> new SubtractionOperation();
+            case "multiplication" -> new MultiplicationOperation(1, RoundingMode.HALF_UP);
+            case "division" -> new DivisionOperation(10, RoundingMode.HALF_UP);
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operationType);
+        };
+        switch (operandSize) {
+            case "INTEGER" -> {
+                a = new BigDecimal("1234");
+                b = new BigDecimal("56");
+            }
+            case "AMOUNT" -> {
+                a = new BigDecimal("1234.56");
+                b = new BigDecimal("78.90");
+            }
+            case "LARGE" -> {
+                a = new BigDecimal("123456789012345678901234567890.123456789");
+                b = new BigDecimal("987654321098765432109876543210.987654321");
+            }
+            default -> throw new IllegalArgumentException("Unsupported operand size: " + operandSize);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculate() {
+        return operation.calculate(a, b);
+    }
+
+    // the plain BigDecimal expression each operation used before the long fast path
+    @Benchmark
+    public BigDecimal bigDecimalBaseline() {
+        return switch (operationType) {
+            case "sum" -> a.add(b);
+            case "subtraction" -> a.subtract(b);
+            case "multiplication" -> a.multiply(b).setScale(1, RoundingMode.HALF_UP);
+            default -> a.divide(b, 10, RoundingMode.HALF_UP);
+        };
+    }
+}
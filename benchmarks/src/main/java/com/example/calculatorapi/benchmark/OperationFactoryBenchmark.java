@@ -0,0 +1,43 @@
+package com.example.calculatorapi.benchmark;
+
+import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationFactoryBenchmark {
+
+    // lower case is what the REST service sends; mixed case exercises the toLowerCase copy
+    @Param({"division", "Division"})
+    private String operationType;
+
+    private CalculatorOperationFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new CalculatorOperationFactory(List.of(
+            new SumOperation(),
+            new SubtractionOperation(),
+            new MultiplicationOperation(1, RoundingMode.HALF_UP),
+            new DivisionOperation(10, RoundingMode.HALF_UP)
+        ));
+    }
+
+    @Benchmark
+    public CalculatorOperation getOperation() {
+        return factory.getOperation(operationType);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.calculatorapi.benchmark;
+
+import com.example.calculatorapi.logging.LogSampler;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.calculatorapi.logging.LogSampler.CORRELATION_ID;
+
+/**
+ * Per-request logging as the services do it: the two info lines of a calculation written
+ * with the correlation id in the MDC, against the same lines sampled by {@link LogSampler}
+ * and carrying the id as a key-value pair of the event. Output goes through the pattern
+ * encoder into a {@link DiscardingAppender}, either on the calling thread or behind an
+ * {@code AsyncAppender} (see {@code logback.xml}). Run with {@code -prof gc} to compare
+ * allocations per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final int IDS = 1024;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    @Param({"1.0", "0.01"})
+    private double sampleRate;
+
+    private final String[] correlationIds = new String[IDS];
+    private final BigDecimal a = new BigDecimal("1234.56");
+    private final BigDecimal b = new BigDecimal("78.90");
+    private final BigDecimal result = new BigDecimal("97406.8");
+
+    private Logger log;
+    private LogSampler sampler;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        log = LoggerFactory.getLogger("benchmark." + appender);
+        sampler = new LogSampler(sampleRate);
+        for (int i = 0; i < IDS; i++) {
+            correlationIds[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public void mdc() {
+        String correlationId = nextId();
+        MDC.put(CORRELATION_ID, correlationId);
+        try {
+            log.info("Received calculation request: {} {} {}", a, "multiplication", b);
+            log.info("Calculation completed successfully: {} {} {} = {}", a, "multiplication", b, result);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    @Benchmark
+    public void sampledKeyValue() {
+        String correlationId = nextId();
+        if (log.isInfoEnabled() && sampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Received calculation request: {} {} {}", a, "multiplication", b);
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Calculation completed successfully: {} {} {} = {}", a, "multiplication", b, result);
+        }
+    }
+
+    private String nextId() {
+        return correlationIds[next++ & (IDS - 1)];
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.RestApplication;
+import com.example.calculatorapi.grpc.CalculateRequest;
+import com.example.calculatorapi.grpc.CalculateResponse;
+import com.example.calculatorapi.grpc.CalculatorGrpc;
+import com.example.calculatorapi.grpc.Operation;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The same calculation through each front end of the REST module over loopback sockets:
+ * {@code POST /calculate} as JSON over HTTP/1.1, the unary gRPC call, and one message on a
+ * long-lived bidirectional gRPC stream. The application runs with
+ * {@code rest.transport=in-process} and no result cache, so everything behind the
+ * controller is shared and only the protocol differs. Each benchmark reports
+ * throughput in requests per millisecond and sampled latency percentiles (p99 included);
+ * run it with {@code -t} to see how the front ends hold up under concurrent callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class FrontEndBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private EmbeddedKafkaBroker broker;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI calculateUri;
+    private ManagedChannel channel;
+    private CalculatorGrpc.CalculatorBlockingStub blockingStub;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+        context = new SpringApplicationBuilder(RestApplication.class)
+            .properties(Map.of(
+                "spring.config.location", "classpath:/front-end-benchmark.properties",
+                "spring.kafka.bootstrap-servers", broker.getBrokersAsString()))
+            .run();
+
+        int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        calculateUri = URI.create("http://localhost:" + httpPort + "/calculate");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        int grpcPort = context.getBean(Server.class).getPort();
+        channel = Grpc.newChannelBuilderForAddress("localhost", grpcPort, InsecureChannelCredentials.create()).build();
+        blockingStub = CalculatorGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpClient.close();
+        context.close();
+        broker.destroy();
+    }
+
+    /**
+     * One bidirectional stream per benchmark thread; replies are matched to requests by id.
+     */
+    @State(Scope.Thread)
+    public static class Stream {
+        private final Map<Long, CompletableFuture<CalculateResponse>> pending = new ConcurrentHashMap<>();
+        private StreamObserver<CalculateRequest> requests;
+
+        @Setup(Level.Trial)
+        public void open(FrontEndBenchmark benchmark) {
+            requests = CalculatorGrpc.newStub(benchmark.channel).calculateStream(new StreamObserver<>() {
+                @Override
+                public void onNext(CalculateResponse response) {
+                    CompletableFuture<CalculateResponse> reply = pending.remove(response.getId());
+                    if (reply != null) {
+                        reply.complete(response);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    pending.values().forEach(reply -> reply.completeExceptionally(t));
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            requests.onCompleted();
+        }
+
+        CalculateResponse calculate(CalculateRequest request) throws Exception {
+            CompletableFuture<CalculateResponse> reply = new CompletableFuture<>();
+            pending.put(request.getId(), reply);
+            requests.onNext(request);
+            return reply.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public String rest() throws Exception {
+        long id = sequence.incrementAndGet();
+        String json = "{\"a\":" + id + ",\"b\":78.90,\"operation\":\"DIVISION\"}";
+        HttpRequest request = HttpRequest.newBuilder(calculateUri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public CalculateResponse grpcUnary() {
+        return blockingStub.calculate(request(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public CalculateResponse grpcStream(Stream stream) throws Exception {
+        return stream.calculate(request(sequence.incrementAndGet()));
+    }
+
+    // distinct operands per call, so no call joins another's calculation
+    private static CalculateRequest request(long id) {
+        return CalculateRequest.newBuilder()
+            .setId(id)
+            .setA(Long.toString(id))
+            .setB("78.90")
+            .setOperation(Operation.DIVISION)
+            .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.Operation;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.logging.LogSampler;
+import com.example.calculatorapi.service.CalculationProcessor;
+import com.example.calculatorapi.service.CalculatorMetrics;
+import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /calculate} through {@link CalculatorController} with
+ * {@code rest.transport=in-process}: validation, the calculator's operations and the
+ * response mapping, without serialization or a broker. The result cache is off, so every
+ * call computes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InProcessTransportBenchmark {
+
+    private final RestCalculationRequest request =
+        new RestCalculationRequest(new BigDecimal("1234.56"), new BigDecimal("78.90"), Operation.DIVISION);
+
+    private CalculatorController controller;
+
+    @Setup
+    public void setUp() {
+        List<CalculatorOperation> operations = List.of(new SumOperation(), new SubtractionOperation(),
+            new MultiplicationOperation(1, RoundingMode.HALF_UP), new DivisionOperation(10, RoundingMode.HALF_UP));
+        var meterRegistry = new SimpleMeterRegistry();
+        var processor = new CalculationProcessor(new CalculatorOperationFactory(operations), ResultCache.disabled(),
+            new CalculatorMetrics(meterRegistry, operations));
+        var metrics = new RequestMetrics(meterRegistry);
+
+        controller = new CalculatorController(new InProcessCalculationTransport(processor, metrics),
+            null, null, null, null, FrontCache.disabled(), new SingleFlight<>(600_000), metrics, new LogSampler(0),
+            "calc-responses.benchmark", "calc-bulk-responses.benchmark", 10000, 1000, 256, RecordKey.CORRELATION_ID, new ObjectMapper());
+    }
+
+    @Benchmark
+    public ResponseEntity<RestCalculationResponse> calculate() {
+        return controller.calculate(request, null, null).join();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.BulkCalculationResponse;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.Operation;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.logging.LogSampler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request/reply correlation in {@link CalculatorController} without a broker: the
+ * "send" hands the request straight back to the reply listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingCorrelationBenchmark {
+
+    private static final BigDecimal RESULT = new BigDecimal("13.0");
+
+    private final RestCalculationRequest request =
+        new RestCalculationRequest(new BigDecimal("10.5"), new BigDecimal("2.5"), Operation.SUM);
+
+    // requests left waiting for a reply during the run, to check that cost stays flat
+    @Param({"0", "100000"})
+    private int inFlight;
+
+    private PendingRequests<CalculationResponse> pending;
+    private PendingRequests<BulkCalculationResponse> pendingBulk;
+    private CalculatorController controller;
+
+    @Setup
+    public void setUp() {
+        pending = new PendingRequests<>("benchmark", 600_000, 10, inFlight + 10_000);
+        pendingBulk = new PendingRequests<>("benchmark-bulk", 600_000, 10, 10_000);
+        for (int i = 0; i < inFlight; i++) {
+            pending.register(CorrelationIds.next());
+        }
+
+        LoopbackTemplate template = new LoopbackTemplate();
+        RequestMetrics metrics = new RequestMetrics(new SimpleMeterRegistry());
+        controller = new CalculatorController(new KafkaCalculationTransport(template, pending, "calc-responses.benchmark", metrics),
+            null, null, pending, pendingBulk, FrontCache.disabled(), new SingleFlight<>(600_000), metrics, new LogSampler(1),
+            "calc-responses.benchmark", "calc-bulk-responses.benchmark", 10000, 1000, 256, RecordKey.CORRELATION_ID, new ObjectMapper());
+        template.controller = controller;
+    }
+
+    @TearDown
+    public void tearDown() {
+        pending.close();
+        pendingBulk.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CalculationResponse registerAndComplete() {
+        String correlationId = CorrelationIds.next();
+        CompletableFuture<CalculationResponse> future = pending.register(correlationId);
+        controller.listenResponses(new CalculationResponse(correlationId, RESULT, null), null);
+        return future.join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseEntity<RestCalculationResponse> calculateRoundTrip() {
+        return controller.calculate(request, null, null).join();
+    }
+
+    static class LoopbackTemplate extends KafkaTemplate<String, CalculationRequest> {
+
+        CalculatorController controller;
+
+        LoopbackTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, CalculationRequest>> send(
+                ProducerRecord<String, CalculationRequest> record) {
+            controller.listenResponses(new CalculationResponse(record.value().correlationId(), RESULT, null), null);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.calculatorapi;
 
+import com.example.calculatorapi.service.CalculationEngineConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(CalculationEngineConfig.class)
 public class CalculatorApplication {
     public static void main(String[] args) {
         SpringApplication.run(CalculatorApplication.class, args);
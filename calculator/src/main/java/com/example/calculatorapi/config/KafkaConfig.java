@@ -1,20 +1,34 @@
 package com.example.calculatorapi.config;
 
+import com.example.calculatorapi.codec.BinaryCodec;
+import com.example.calculatorapi.codec.WireFormat;
+import com.example.calculatorapi.codec.WireFormatDeserializer;
+import com.example.calculatorapi.codec.WireFormatSerializer;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.kafka.KafkaProfile;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @EnableKafka
@@ -24,41 +38,231 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${calculator.batch.max-records:500}")
+    private int batchMaxRecords;
+
+    @Value("${calculator.batch.min-bytes:1}")
+    private int batchMinBytes;
+
+    @Value("${calculator.batch.max-wait-ms:500}")
+    private int batchMaxWaitMs;
+
+    @Value("${kafka.producer.profile:DEFAULT}")
+    private KafkaProfile producerProfile = KafkaProfile.DEFAULT;
+
+    @Value("${kafka.consumer.profile:DEFAULT}")
+    private KafkaProfile consumerProfile = KafkaProfile.DEFAULT;
+
+    @Value("${kafka.topic.partitions:1}")
+    private int partitions;
+
+    @Value("${calculator.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    // transactional ids must not be shared by two live instances
+    @Value("${calculator.instance-id:${HOSTNAME:#{T(java.util.UUID).randomUUID().toString()}}}")
+    private String instanceId;
+
+    // more listeners than partitions would sit idle
+    @Value("${calculator.listener.concurrency:${kafka.topic.partitions:1}}")
+    private int concurrency;
+
     @Bean
-    public ConsumerFactory<String, CalculationRequest> consumerFactory() {
+    public NewTopic requestsTopic() {
+        return TopicBuilder.name("calc-requests").partitions(partitions).build();
+    }
 
-        JsonDeserializer<CalculationRequest> deserializer = new JsonDeserializer<>(CalculationRequest.class);
-        deserializer.addTrustedPackages("*");
+    @Bean
+    public NewTopic batchRequestsTopic() {
+        return TopicBuilder.name("calc-requests-batch").partitions(partitions).build();
+    }
 
-        Map<String, Object> props = Map.of(
-                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-                ConsumerConfig.GROUP_ID_CONFIG, "calculator-group",
-                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
-                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class
-        );
+    @Bean
+    public NewTopic expressionsTopic() {
+        return TopicBuilder.name("calc-expressions").partitions(partitions).build();
+    }
+
+    @Bean
+    public NewTopic bulkRequestsTopic() {
+        return TopicBuilder.name("calc-bulk-requests").partitions(partitions).build();
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+    @Bean
+    public ConsumerFactory<String, CalculationRequest> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), requestDeserializer());
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> kafkaListenerContainerFactory() {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, CalculationRequest>();
         factory.setConsumerFactory(consumerFactory());
+        configureContainer(factory);
+        transactional(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, CalculationRequest> batchConsumerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerProps());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchMaxWaitMs);
+
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), requestDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> batchKafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, CalculationRequest>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        configureContainer(factory);
+        transactional(factory);
+        return factory;
+    }
+
+    // expressions and bulk requests have no binary encoding, so they always travel as JSON
+    @Bean
+    public ConsumerFactory<String, ExpressionRequest> expressionConsumerFactory() {
+        JsonDeserializer<ExpressionRequest> deserializer = new JsonDeserializer<>(ExpressionRequest.class);
+        deserializer.addTrustedPackages("*");
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ExpressionRequest> expressionKafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, ExpressionRequest>();
+        factory.setConsumerFactory(expressionConsumerFactory());
+        configureContainer(factory);
+        transactional(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, BulkCalculationRequest> bulkConsumerFactory() {
+        JsonDeserializer<BulkCalculationRequest> deserializer = new JsonDeserializer<>(BulkCalculationRequest.class);
+        deserializer.addTrustedPackages("*");
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BulkCalculationRequest> bulkKafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, BulkCalculationRequest>();
+        factory.setConsumerFactory(bulkConsumerFactory());
+        configureContainer(factory);
+        if (exactlyOnce) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(bulkKafkaTransactionManager());
+        }
         return factory;
     }
 
     @Bean
     public ProducerFactory<String, CalculationResponse> producerFactory() {
-        Map<String, Object> props = Map.of(
-                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
-                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class
-        );
-        return new DefaultKafkaProducerFactory<>(props);
+        var factory = new DefaultKafkaProducerFactory<String, CalculationResponse>(replyProducerProps(), new StringSerializer(),
+                new WireFormatSerializer<>(new JsonSerializer<>(), BinaryCodec::encode, WireFormat.JSON));
+        if (exactlyOnce) {
+            factory.setTransactionIdPrefix("calculator-" + instanceId + "-");
+        }
+        return factory;
+    }
+
+    /**
+     * Wraps each listener call on the calculation and expression topics in a Kafka
+     * transaction: the replies and the consumed offsets are committed together, so a
+     * request is answered exactly once however often it is redelivered, after a crash or a
+     * rebalance included.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "calculator.exactly-once.enabled", havingValue = "true")
+    public KafkaTransactionManager<String, CalculationResponse> kafkaTransactionManager() {
+        return new KafkaTransactionManager<>(producerFactory());
     }
 
     @Bean
     public KafkaTemplate<String, CalculationResponse> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public ProducerFactory<String, BulkCalculationResponse> bulkProducerFactory() {
+        var factory = new DefaultKafkaProducerFactory<String, BulkCalculationResponse>(replyProducerProps(),
+                new StringSerializer(), new JsonSerializer<>());
+        if (exactlyOnce) {
+            factory.setTransactionIdPrefix("calculator-" + instanceId + "-bulk-");
+        }
+        return factory;
+    }
+
+    // bulk replies have their own producers, so their transactions have their own manager
+    @Bean
+    @ConditionalOnProperty(name = "calculator.exactly-once.enabled", havingValue = "true")
+    public KafkaTransactionManager<String, BulkCalculationResponse> bulkKafkaTransactionManager() {
+        return new KafkaTransactionManager<>(bulkProducerFactory());
+    }
+
+    @Bean
+    public KafkaTemplate<String, BulkCalculationResponse> bulkKafkaTemplate() {
+        return new KafkaTemplate<>(bulkProducerFactory());
+    }
+
+    // profile settings go in first, so they never replace the servers, group or deserializers
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>(consumerProfile.consumerProps());
+        props.putAll(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "calculator-group",
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class
+        ));
+        return props;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>(producerProfile.producerProps());
+        props.putAll(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class
+        ));
+        return props;
+    }
+
+    private Map<String, Object> replyProducerProps() {
+        Map<String, Object> props = new HashMap<>(producerProps());
+        if (exactlyOnce) {
+            // transactions need idempotence, whatever the profile says
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        return props;
+    }
+
+    private WireFormatDeserializer<CalculationRequest> requestDeserializer() {
+        JsonDeserializer<CalculationRequest> deserializer = new JsonDeserializer<>(CalculationRequest.class);
+        deserializer.addTrustedPackages("*");
+        return new WireFormatDeserializer<>(deserializer, BinaryCodec::decodeRequest);
+    }
+
+    // in batch mode one transaction covers the whole poll; in record mode, every record
+    private void transactional(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        if (exactlyOnce) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(kafkaTransactionManager());
+        }
+    }
+
+    private void configureContainer(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        factory.setConcurrency(Math.max(1, concurrency));
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(virtualThreadExecutor());
+        }
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("calculator-listener-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.logging.LogSampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoggingConfig {
+
+    @Value("${calculator.logging.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Bean
+    public LogSampler logSampler() {
+        return new LogSampler(sampleRate);
+    }
+}
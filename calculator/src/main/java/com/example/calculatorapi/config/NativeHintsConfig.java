@@ -0,0 +1,27 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.aot.ContractRuntimeHints;
+import com.example.calculatorapi.aot.EngineRuntimeHints;
+import com.example.calculatorapi.service.CalculatorService;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Runtime hints for the {@code aot} and {@code native} build profiles. The listener
+ * adapter calls {@code @KafkaListener} methods reflectively, which a native image only
+ * allows for methods registered here.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints({ContractRuntimeHints.class, EngineRuntimeHints.class, NativeHintsConfig.ListenerHints.class})
+public class NativeHintsConfig {
+
+    static class ListenerHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(CalculatorService.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
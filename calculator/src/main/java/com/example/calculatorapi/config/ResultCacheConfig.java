@@ -0,0 +1,38 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.service.ReplyIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResultCacheConfig {
+
+    @Value("${calculator.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${calculator.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${calculator.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${calculator.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    @Value("${calculator.exactly-once.dedup-size:10000}")
+    private long dedupSize;
+
+    @Bean
+    public ResultCache resultCache() {
+        return enabled ? new ResultCache("result", maxSize, Duration.ofMillis(ttlMs)) : ResultCache.disabled();
+    }
+
+    @Bean
+    public ReplyIndex replyIndex() {
+        return exactlyOnce && dedupSize > 0 ? new ReplyIndex(dedupSize) : ReplyIndex.disabled();
+    }
+}
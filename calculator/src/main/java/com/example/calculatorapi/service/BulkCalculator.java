@@ -0,0 +1,104 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse.Result;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates the items of a bulk request on a fork/join pool. Items are grouped by
+ * operation and split into chunks, so every task resolves its {@link CalculatorOperation}
+ * once and then runs it in a tight loop; results keep the order of the request. A null
+ * item (its fields cannot be null, {@link BulkCalculationRequest.Item} rejects that) gets
+ * an error result of its own instead of failing the whole request.
+ */
+@Slf4j
+@Component
+public class BulkCalculator {
+    private final CalculatorOperationFactory operationFactory;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BulkCalculator(CalculatorOperationFactory operationFactory,
+                          @Value("${calculator.bulk.parallelism:0}") int parallelism,
+                          @Value("${calculator.bulk.chunk-size:256}") int chunkSize) {
+        this.operationFactory = operationFactory;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public List<Result> calculate(List<BulkCalculationRequest.Item> items) {
+        if (items == null) {
+            return List.of();
+        }
+        Result[] results = new Result[items.size()];
+        List<Chunk> chunks = new ArrayList<>();
+        groupByOperation(items, results).forEach((operationType, indexes) -> {
+            for (int from = 0; from < indexes.size(); from += chunkSize) {
+                chunks.add(new Chunk(operationType, indexes.subList(from, Math.min(from + chunkSize, indexes.size()))));
+            }
+        });
+
+        if (chunks.size() <= 1) {
+            chunks.forEach(chunk -> evaluate(chunk, items, results));
+        } else {
+            pool.submit(() -> chunks.parallelStream().forEach(chunk -> evaluate(chunk, items, results))).join();
+        }
+        return Arrays.asList(results);
+    }
+
+    private static Map<String, List<Integer>> groupByOperation(List<BulkCalculationRequest.Item> items, Result[] results) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkCalculationRequest.Item item = items.get(i);
+            if (item == null) {
+                results[i] = new Result(null, "Item " + i + " must have a, b and operation");
+                continue;
+            }
+            groups.computeIfAbsent(item.operation().toLowerCase(), k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    private void evaluate(Chunk chunk, List<BulkCalculationRequest.Item> items, Result[] results) {
+        CalculatorOperation operation;
+        try {
+            operation = operationFactory.getOperation(chunk.operationType());
+        } catch (IllegalArgumentException e) {
+            for (int index : chunk.indexes()) {
+                results[index] = new Result(null, e.getMessage());
+            }
+            return;
+        }
+
+        for (int index : chunk.indexes()) {
+            BulkCalculationRequest.Item item = items.get(index);
+            try {
+                BigDecimal result = operation.calculate(item.a(), item.b());
+                results[index] = new Result(result, null);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                results[index] = new Result(null, e.getMessage());
+            } catch (Exception e) {
+                log.error("Unexpected error in bulk item {}: {}", index, e.getMessage());
+                results[index] = new Result(null, "Internal server error");
+            }
+        }
+    }
+
+    private record Chunk(String operationType, List<Integer> indexes) {}
+}
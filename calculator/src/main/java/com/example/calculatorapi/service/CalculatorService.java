@@ -1,53 +1,204 @@
 package com.example.calculatorapi.service;
 
+import com.example.calculatorapi.codec.WireFormat;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.kafka.Deadline;
+import com.example.calculatorapi.logging.LogSampler;
+import com.example.calculatorapi.service.expression.ExpressionCompiler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
-import org.slf4j.MDC;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.example.calculatorapi.logging.LogSampler.CORRELATION_ID;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CalculatorService {
     private final KafkaTemplate<String, CalculationResponse> kafkaTemplate;
-    private final CalculatorOperationFactory operationFactory;
-
-    @KafkaListener(topics = "calc-requests", groupId = "calculator-group", containerFactory = "kafkaListenerContainerFactory")
-    public void handleCalculation(CalculationRequest request) {
-        try {
-            MDC.put("correlationId", request.correlationId());
-            log.info("Received calculation request: {} {} {}", request.a(), request.operation(), request.b());
-
-            try {
-                CalculatorOperation operation = operationFactory.getOperation(request.operation());
-                BigDecimal result = operation.calculate(request.a(), request.b());
-
-                log.info("Calculation result: {} {} {} = {}", request.a(), request.operation(), request.b(), result);
-                sendResponse(request.correlationId(), result, null);
-
-            } catch (ArithmeticException e) {
-                log.error("Arithmetic error in calculation: {}", e.getMessage());
-                sendResponse(request.correlationId(), null, e.getMessage());
-            } catch (IllegalArgumentException e) {
-                log.error("Invalid operation: {}", e.getMessage());
-                sendResponse(request.correlationId(), null, e.getMessage());
-            } catch (Exception e) {
-                log.error("Unexpected error in calculation: {}", e.getMessage());
-                sendResponse(request.correlationId(), null, "Internal server error");
+    private final CalculationProcessor processor;
+    private final ExpressionCompiler expressionCompiler;
+    private final BulkCalculator bulkCalculator;
+    private final KafkaTemplate<String, BulkCalculationResponse> bulkKafkaTemplate;
+    private final LogSampler logSampler;
+    private final KeyOrderedDispatcher dispatcher;
+    private final CalculatorMetrics metrics;
+    private final PriorityLanes lanes;
+    private final ReplyIndex replies;
+
+    @KafkaListener(topics = "calc-requests", groupId = "calculator-group", containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{!${calculator.batch.enabled:false}}")
+    public void handleCalculation(CalculationRequest request,
+                                  @Header(name = KafkaHeaders.REPLY_TOPIC, required = false) String replyTopic,
+                                  @Header(name = Deadline.HEADER, required = false) byte[] deadline,
+                                  @Header(name = WireFormat.HEADER, required = false) byte[] wireFormat) {
+        lanes.interactive();
+        calculate(request, replyTopic, deadline, wireFormat);
+    }
+
+    // the batch lane, paused by PriorityLanes while interactive requests are arriving; it has a
+    // consumer group of its own, so its rebalances never stop the interactive lane
+    @KafkaListener(topics = "calc-requests-batch", groupId = "calculator-batch-group", containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{!${calculator.batch.enabled:false}}")
+    public void handleBatchLaneCalculation(CalculationRequest request,
+                                           @Header(name = KafkaHeaders.REPLY_TOPIC, required = false) String replyTopic,
+                                           @Header(name = Deadline.HEADER, required = false) byte[] deadline,
+                                           @Header(name = WireFormat.HEADER, required = false) byte[] wireFormat) {
+        calculate(request, replyTopic, deadline, wireFormat);
+    }
+
+    @KafkaListener(topics = "calc-requests", groupId = "calculator-group", containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${calculator.batch.enabled:false}")
+    public void handleCalculations(List<ConsumerRecord<String, CalculationRequest>> records) {
+        lanes.interactive();
+        calculateAll(records);
+    }
+
+    @KafkaListener(topics = "calc-requests-batch", groupId = "calculator-batch-group", containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${calculator.batch.enabled:false}")
+    public void handleBatchLaneCalculations(List<ConsumerRecord<String, CalculationRequest>> records) {
+        calculateAll(records);
+    }
+
+    private void calculate(CalculationRequest request, String replyTopic, byte[] deadline, byte[] wireFormat) {
+        metrics.received();
+        if (expired(request.correlationId(), deadline)) {
+            return;
+        }
+        // the correlation id rides on the events themselves, so the hot path never touches the MDC
+        boolean logged = log.isInfoEnabled() && logSampler.sampled(request.correlationId());
+        if (logged) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Received calculation request: {} {} {}", request.a(), request.operation(), request.b());
+        }
+
+        CalculationResponse response = replies.answer(request.correlationId(), () -> processor.calculate(request));
+        if (logged && response.errorMessage() == null) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Calculation result: {} {} {} = {}", request.a(), request.operation(), request.b(), response.result());
+        }
+        sendResponse(replyTopic, response, deadline, wireFormat);
+    }
+
+    private void calculateAll(List<ConsumerRecord<String, CalculationRequest>> records) {
+        metrics.received();
+        dispatcher.dispatch(records, record -> {
+            CalculationRequest request = record.value();
+            byte[] deadline = header(record, Deadline.HEADER);
+            if (expired(request.correlationId(), deadline)) {
+                return;
             }
-        } finally {
-            MDC.clear();
+            if (log.isDebugEnabled()) {
+                log.atDebug().addKeyValue(CORRELATION_ID, request.correlationId())
+                    .log("Received calculation request: {} {} {}", request.a(), request.operation(), request.b());
+            }
+
+            sendResponse(replyTopic(record), replies.answer(request.correlationId(), () -> processor.calculate(request)), deadline,
+                header(record, WireFormat.HEADER));
+        });
+        kafkaTemplate.flush();
+        log.debug("Processed batch of {} calculation requests", records.size());
+    }
+
+    @KafkaListener(topics = "calc-expressions", groupId = "calculator-group", containerFactory = "expressionKafkaListenerContainerFactory")
+    public void handleExpression(ExpressionRequest request,
+                                 @Header(name = KafkaHeaders.REPLY_TOPIC, required = false) String replyTopic,
+                                 @Header(name = Deadline.HEADER, required = false) byte[] deadline) {
+        metrics.received();
+        if (expired(request.correlationId(), deadline)) {
+            return;
+        }
+        boolean logged = log.isInfoEnabled() && logSampler.sampled(request.correlationId());
+        if (logged) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Received expression request: {} with {}", request.expression(), request.variables());
         }
+
+        CalculationResponse response = replies.answer(request.correlationId(), () -> processor.respond(request.correlationId(),
+            () -> expressionCompiler.compile(request.expression()).evaluate(request.variables())));
+        if (logged && response.errorMessage() == null) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Expression result: {} = {}", request.expression(), response.result());
+        }
+        sendResponse(replyTopic, response, deadline, null);
+    }
+
+    @KafkaListener(topics = "calc-bulk-requests", groupId = "calculator-group", containerFactory = "bulkKafkaListenerContainerFactory")
+    public void handleBulkCalculation(BulkCalculationRequest request,
+                                      @Header(name = KafkaHeaders.REPLY_TOPIC, required = false) String replyTopic,
+                                      @Header(name = Deadline.HEADER, required = false) byte[] deadline) {
+        metrics.received();
+        if (expired(request.correlationId(), deadline)) {
+            return;
+        }
+        boolean logged = log.isInfoEnabled() && logSampler.sampled(request.correlationId());
+        if (logged) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Received bulk calculation request with {} items", request.items().size());
+        }
+
+        var response = new BulkCalculationResponse(request.correlationId(), bulkCalculator.calculate(request.items()));
+        send(bulkKafkaTemplate, replyTopic != null ? replyTopic : "calc-bulk-responses", response.correlationId(),
+            response, deadline, null);
+        if (logged) {
+            log.atInfo().addKeyValue(CORRELATION_ID, request.correlationId())
+                .log("Bulk calculation completed: {} items", response.results().size());
+        }
+    }
+
+    // nobody waits for the answer to a request past its deadline, so it is not computed
+    private boolean expired(String correlationId, byte[] deadline) {
+        if (!Deadline.expired(deadline, System.currentTimeMillis())) {
+            return false;
+        }
+        metrics.expired();
+        log.atDebug().addKeyValue(CORRELATION_ID, correlationId).log("Skipped request past its deadline");
+        return true;
+    }
+
+    private static String replyTopic(ConsumerRecord<?, ?> record) {
+        var header = record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] header(ConsumerRecord<?, ?> record, String name) {
+        var header = record.headers().lastHeader(name);
+        return header != null ? header.value() : null;
     }
 
-    private void sendResponse(String correlationId, BigDecimal result, String errorMessage) {
-        CalculationResponse response = new CalculationResponse(correlationId, result, errorMessage);
-        kafkaTemplate.send("calc-responses", response);
+    private void sendResponse(String replyTopic, CalculationResponse response, byte[] deadline, byte[] wireFormat) {
+        send(kafkaTemplate, replyTopic != null ? replyTopic : "calc-responses", response.correlationId(), response, deadline,
+            wireFormat);
+    }
+
+    // the deadline goes back with the reply, so a late one is dropped without being looked up, and
+    // the wire format too, so the reply is written the way the requester wrote the request
+    private static <V> void send(KafkaTemplate<String, V> template, String topic, String key, V value, byte[] deadline,
+                                 byte[] wireFormat) {
+        if (deadline == null && wireFormat == null) {
+            template.send(topic, key, value);
+            return;
+        }
+        var record = new ProducerRecord<>(topic, key, value);
+        if (deadline != null) {
+            record.headers().add(Deadline.HEADER, deadline);
+        }
+        if (wireFormat != null) {
+            record.headers().add(WireFormat.HEADER, wireFormat);
+        }
+        template.send(record);
     }
 }
@@ -0,0 +1,67 @@
+package com.example.calculatorapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Handles the records of a polled batch concurrently without giving up per-key ordering.
+ * Records are grouped by key and each group runs on the pool in offset order, so two
+ * records with the same key are never handled at the same time or out of order; records
+ * without a key are independent of each other. {@link #dispatch} returns only once every
+ * record of the batch is handled, so the container commits the batch's offsets after all
+ * of them and in order.
+ */
+@Component
+public class KeyOrderedDispatcher {
+    private final ForkJoinPool pool;
+
+    // a transactional send has to come from the listener thread that owns the transaction
+    public KeyOrderedDispatcher(
+            @Value("#{${calculator.exactly-once.enabled:false} ? 1 : ${calculator.batch.parallelism:1}}") int parallelism) {
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public <K, V> void dispatch(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        if (pool == null || records.size() <= 1) {
+            records.forEach(handler);
+            return;
+        }
+
+        Map<Object, List<ConsumerRecord<K, V>>> groups = new LinkedHashMap<>();
+        for (ConsumerRecord<K, V> record : records) {
+            Object key = record.key() != null ? record.key() : record;
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+        }
+
+        CompletableFuture<?>[] tasks = groups.values().stream()
+            .map(group -> CompletableFuture.runAsync(() -> group.forEach(handler), pool))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            // surface the handler's own exception so the container's error handling sees it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
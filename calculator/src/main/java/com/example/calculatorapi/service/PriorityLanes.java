@@ -0,0 +1,133 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.kafka.Priority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Lets interactive requests drain first by pausing the listener containers of the batch
+ * lane while interactive ones keep arriving. The interactive listeners report every request
+ * they handle; once none has come for {@code idleMs} the batch lane resumes. So that batch
+ * work never starves, the lane is paused for at most {@code maxPauseMs} at a time and then
+ * runs for at least {@code minRunMs} before it can be paused again, which leaves it
+ * {@code minRunMs / (maxPauseMs + minRunMs)} of the time under sustained interactive load.
+ * A paused consumer keeps polling without fetching, so its partitions stay assigned.
+ */
+@Slf4j
+@Component
+public class PriorityLanes implements MeterBinder {
+    private final Supplier<Collection<MessageListenerContainer>> batchContainers;
+    private final long idleNanos;
+    private final long maxPauseNanos;
+    private final long minRunNanos;
+    private final ScheduledExecutorService ticker;
+    private volatile long lastInteractiveNanos;
+    private volatile boolean paused;
+    private long changedNanos;
+    private long pauses;
+
+    @Autowired
+    public PriorityLanes(KafkaListenerEndpointRegistry registry,
+                         @Value("${calculator.lanes.enabled:true}") boolean enabled,
+                         @Value("${calculator.lanes.idle-ms:100}") long idleMs,
+                         @Value("${calculator.lanes.max-pause-ms:900}") long maxPauseMs,
+                         @Value("${calculator.lanes.min-run-ms:100}") long minRunMs,
+                         @Value("${calculator.lanes.tick-ms:10}") long tickMs) {
+        this(() -> registry.getAllListenerContainers().stream()
+                .filter(container -> Arrays.asList(container.getContainerProperties().getTopics())
+                    .contains(Priority.BATCH.topic()))
+                .toList(),
+            idleMs, maxPauseMs, minRunMs);
+        if (enabled) {
+            start(tickMs);
+        }
+    }
+
+    PriorityLanes(Supplier<Collection<MessageListenerContainer>> batchContainers,
+                  long idleMs, long maxPauseMs, long minRunMs) {
+        this.batchContainers = batchContainers;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMs);
+        this.maxPauseNanos = TimeUnit.MILLISECONDS.toNanos(maxPauseMs);
+        this.minRunNanos = TimeUnit.MILLISECONDS.toNanos(minRunMs);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "priority-lanes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long now = System.nanoTime();
+        this.lastInteractiveNanos = now - idleNanos;
+        this.changedNanos = now - minRunNanos;
+    }
+
+    private void start(long tickMs) {
+        ticker.scheduleAtFixedRate(() -> adjust(System.nanoTime()), tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Called for every request an interactive listener handles.
+     */
+    public void interactive() {
+        interactive(System.nanoTime());
+    }
+
+    void interactive(long nowNanos) {
+        lastInteractiveNanos = nowNanos;
+    }
+
+    public boolean paused() {
+        return paused;
+    }
+
+    public synchronized long pauses() {
+        return pauses;
+    }
+
+    synchronized void adjust(long nowNanos) {
+        boolean busy = nowNanos - lastInteractiveNanos < idleNanos;
+        long inState = nowNanos - changedNanos;
+        if (paused && (!busy || inState >= maxPauseNanos)) {
+            batchContainers.get().forEach(MessageListenerContainer::resume);
+            paused = false;
+            changedNanos = nowNanos;
+            log.debug("Resumed the batch lane");
+        } else if (!paused && busy && inState >= minRunNanos) {
+            batchContainers.get().stream().filter(MessageListenerContainer::isRunning)
+                .forEach(MessageListenerContainer::pause);
+            paused = true;
+            changedNanos = nowNanos;
+            pauses++;
+            log.debug("Paused the batch lane for interactive requests");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calculator.lanes.batch.paused", this, lanes -> lanes.paused() ? 1 : 0)
+            .description("Whether the batch lane is paused for interactive requests")
+            .register(registry);
+        FunctionCounter.builder("calculator.lanes.batch.pauses", this, PriorityLanes::pauses)
+            .description("Times the batch lane was paused for interactive requests")
+            .register(registry);
+    }
+}
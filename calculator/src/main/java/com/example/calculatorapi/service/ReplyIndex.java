@@ -0,0 +1,56 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.Supplier;
+
+/**
+ * The latest replies by correlation id, bounded by size. A request this process consumes
+ * again, after its transaction was aborted, is answered with the reply it got the first
+ * time instead of being computed again. Error replies are kept too, since the same request
+ * fails the same way. The index lives in memory only: it is empty after a restart and knows
+ * nothing of another instance's replies, so it saves work within one process's lifetime and
+ * the Kafka transaction alone keeps redeliveries after a crash or rebalance from being
+ * answered twice. Publishes the {@code cache.*} meters tagged {@code cache=replies}.
+ */
+public class ReplyIndex implements MeterBinder {
+    private static final ReplyIndex DISABLED = new ReplyIndex(null);
+
+    private final Cache<String, CalculationResponse> replies;
+
+    public ReplyIndex(long maximumSize) {
+        this(Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build());
+    }
+
+    private ReplyIndex(Cache<String, CalculationResponse> replies) {
+        this.replies = replies;
+    }
+
+    /** An index that remembers nothing, so every request is computed. */
+    public static ReplyIndex disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns the reply already given to {@code correlationId}, running {@code calculation}
+     * only if there is none.
+     */
+    public CalculationResponse answer(String correlationId, Supplier<CalculationResponse> calculation) {
+        if (replies == null || correlationId == null) {
+            return calculation.get();
+        }
+        return replies.get(correlationId, id -> calculation.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (replies != null) {
+            CaffeineCacheMetrics.monitor(registry, replies, "replies");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.calculatorapi.service.expression;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@FunctionalInterface
+public interface CompiledExpression {
+
+    BigDecimal evaluate(Map<String, BigDecimal> variables);
+}
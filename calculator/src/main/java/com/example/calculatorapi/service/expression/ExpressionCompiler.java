@@ -0,0 +1,55 @@
+package com.example.calculatorapi.service.expression;
+
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parses expressions into {@link CompiledExpression} trees, kept in a size-bounded cache
+ * keyed by their text. Expressions longer than {@code maxLength} characters or nested deeper
+ * than {@code maxDepth} are rejected before they can exhaust the stack, in parsing or in
+ * evaluation. Publishes the {@code cache.*} meters tagged {@code cache=expressions}.
+ */
+@Component
+public class ExpressionCompiler implements MeterBinder {
+    private final CalculatorOperationFactory operationFactory;
+    private final int maxLength;
+    private final int maxDepth;
+    private final Cache<String, CompiledExpression> cache;
+
+    public ExpressionCompiler(CalculatorOperationFactory operationFactory,
+                              @Value("${calculator.expression.cache-size:1000}") int cacheSize,
+                              @Value("${calculator.expression.max-length:1000}") int maxLength,
+                              @Value("${calculator.expression.max-depth:64}") int maxDepth) {
+        this.operationFactory = operationFactory;
+        this.maxLength = maxLength;
+        this.maxDepth = maxDepth;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+    }
+
+    public CompiledExpression compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Expression is required");
+        }
+        if (expression.length() > maxLength) {
+            throw new IllegalArgumentException("Expression longer than " + maxLength + " characters");
+        }
+        return cache.get(expression, text -> new ExpressionParser(operationFactory, text, maxDepth).parse());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "expressions");
+    }
+
+    // eviction runs in the background; tests settle it before looking at the size
+    long cacheSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.calculatorapi.service.expression;
+
+import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+
+import java.math.BigDecimal;
+
+/**
+ * Recursive descent parser for {@code + - * /} expressions over decimal literals and
+ * variables, with parentheses and unary minus. Operators are resolved to the
+ * {@link CalculatorOperation} beans while parsing, so evaluation only walks the tree.
+ * Parentheses and unary minus nest at most {@code maxDepth} levels; a chain of binary
+ * operators is parsed in a loop, and its evaluation depth is bounded by the text length.
+ */
+final class ExpressionParser {
+    private final CalculatorOperationFactory operationFactory;
+    private final String text;
+    private final int maxDepth;
+    private int pos;
+    private int depth;
+
+    ExpressionParser(CalculatorOperationFactory operationFactory, String text, int maxDepth) {
+        this.operationFactory = operationFactory;
+        this.text = text;
+        this.maxDepth = maxDepth;
+    }
+
+    CompiledExpression parse() {
+        CompiledExpression expression = parseSum();
+        skipWhitespace();
+        if (pos < text.length()) {
+            throw error("Unexpected '" + text.charAt(pos) + "'");
+        }
+        return expression;
+    }
+
+    private CompiledExpression parseSum() {
+        CompiledExpression left = parseProduct();
+        while (true) {
+            if (accept('+')) {
+                left = binary(left, "sum", parseProduct());
+            } else if (accept('-')) {
+                left = binary(left, "subtraction", parseProduct());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private CompiledExpression parseProduct() {
+        CompiledExpression left = parseUnary();
+        while (true) {
+            if (accept('*')) {
+                left = binary(left, "multiplication", parseUnary());
+            } else if (accept('/')) {
+                left = binary(left, "division", parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private CompiledExpression parseUnary() {
+        if (accept('-')) {
+            enter();
+            CompiledExpression operand = parseUnary();
+            depth--;
+            return variables -> operand.evaluate(variables).negate();
+        }
+        accept('+');
+        return parsePrimary();
+    }
+
+    private CompiledExpression parsePrimary() {
+        skipWhitespace();
+        if (accept('(')) {
+            enter();
+            CompiledExpression inner = parseSum();
+            if (!accept(')')) {
+                throw error("Missing ')'");
+            }
+            depth--;
+            return inner;
+        }
+        if (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            return parseNumber();
+        }
+        if (pos < text.length() && Character.isJavaIdentifierStart(text.charAt(pos))) {
+            return parseVariable();
+        }
+        throw error(pos < text.length() ? "Unexpected '" + text.charAt(pos) + "'" : "Unexpected end of expression");
+    }
+
+    private CompiledExpression parseNumber() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        String literal = text.substring(start, pos);
+        try {
+            BigDecimal value = new BigDecimal(literal);
+            return variables -> value;
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Invalid number '" + literal + "'");
+        }
+    }
+
+    private CompiledExpression parseVariable() {
+        int start = pos;
+        while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+            pos++;
+        }
+        String name = text.substring(start, pos);
+        return variables -> {
+            BigDecimal value = variables.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Unbound variable: " + name);
+            }
+            return value;
+        };
+    }
+
+    private CompiledExpression binary(CompiledExpression left, String operationType, CompiledExpression right) {
+        CalculatorOperation operation = operationFactory.getOperation(operationType);
+        return variables -> operation.calculate(left.evaluate(variables), right.evaluate(variables));
+    }
+
+    private void enter() {
+        if (++depth > maxDepth) {
+            throw error("Nested deeper than " + maxDepth + " levels");
+        }
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in expression: " + text);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.calculatorapi;
+
+import com.example.calculatorapi.service.CalculatorService;
+import com.example.calculatorapi.service.PriorityLanes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "spring.main.keep-alive=false",
+    "calculator.instance-id=smoke-test"
+})
+@EmbeddedKafka(partitions = 1)
+class CalculatorApplicationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listeners;
+
+    @Test
+    void contextStarts_withItsListeners() {
+        assertThat(context.getBean(CalculatorService.class)).isNotNull();
+        assertThat(context.getBean(PriorityLanes.class)).isNotNull();
+        assertThat(listeners.getAllListenerContainers())
+            .filteredOn(MessageListenerContainer::isAutoStartup)
+            .isNotEmpty()
+            .allMatch(MessageListenerContainer::isRunning);
+    }
+}
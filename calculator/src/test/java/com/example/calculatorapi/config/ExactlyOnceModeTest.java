@@ -0,0 +1,52 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.kafka.KafkaProfile;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactlyOnceModeTest {
+
+    private KafkaConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new KafkaConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(config, "instanceId", "calc-1");
+    }
+
+    @Test
+    void exactlyOnceEnabled_makesRepliesTransactional() {
+        ReflectionTestUtils.setField(config, "exactlyOnce", true);
+        ReflectionTestUtils.setField(config, "producerProfile", KafkaProfile.LOW_LATENCY);
+
+        var producerFactory = config.producerFactory();
+
+        assertThat(producerFactory.transactionCapable()).isTrue();
+        assertThat(producerFactory.getTransactionIdPrefix()).isEqualTo("calculator-calc-1-");
+        assertThat(producerFactory.getConfigurationProperties())
+            .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+            .containsEntry(ProducerConfig.ACKS_CONFIG, "all");
+        assertThat(config.batchKafkaListenerContainerFactory().getContainerProperties().getKafkaAwareTransactionManager())
+            .isNotNull();
+        assertThat(config.expressionKafkaListenerContainerFactory().getContainerProperties().getKafkaAwareTransactionManager())
+            .isNotNull();
+        assertThat(config.bulkKafkaListenerContainerFactory().getContainerProperties().getKafkaAwareTransactionManager())
+            .isNotNull();
+        assertThat(config.bulkProducerFactory().getTransactionIdPrefix()).isEqualTo("calculator-calc-1-bulk-");
+    }
+
+    @Test
+    void exactlyOnceDisabled_leavesRepliesAtLeastOnce() {
+        ReflectionTestUtils.setField(config, "exactlyOnce", false);
+
+        assertThat(config.producerFactory().transactionCapable()).isFalse();
+        assertThat(config.bulkProducerFactory().transactionCapable()).isFalse();
+        assertThat(config.kafkaListenerContainerFactory().getContainerProperties().getKafkaAwareTransactionManager())
+            .isNull();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.calculatorapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadModeTest {
+
+    private KafkaConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new KafkaConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+    }
+
+    @Test
+    void listenerContainerFactory_virtualThreadsEnabled_runsListenerOnVirtualThread() throws Exception {
+        ReflectionTestUtils.setField(config, "virtualThreads", true);
+
+        AsyncTaskExecutor executor = config.kafkaListenerContainerFactory()
+            .getContainerProperties()
+            .getListenerTaskExecutor();
+
+        assertThat(executor).isNotNull();
+        assertThat(executor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+    }
+
+    @Test
+    void listenerContainerFactory_virtualThreadsDisabled_keepsDefaultExecutor() {
+        ReflectionTestUtils.setField(config, "virtualThreads", false);
+
+        assertThat(config.kafkaListenerContainerFactory()
+            .getContainerProperties()
+            .getListenerTaskExecutor()).isNull();
+    }
+}
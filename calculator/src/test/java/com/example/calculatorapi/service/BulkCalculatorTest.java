@@ -0,0 +1,107 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.dto.BulkCalculationRequest.Item;
+import com.example.calculatorapi.dto.BulkCalculationResponse.Result;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkCalculatorTest {
+
+    private CalculatorOperationFactory factory;
+    private BulkCalculator bulkCalculator;
+
+    @BeforeEach
+    void setUp() {
+        factory = new CalculatorOperationFactory(List.of(
+            new SumOperation(),
+            new SubtractionOperation(),
+            new MultiplicationOperation(1, RoundingMode.HALF_UP),
+            new DivisionOperation(10, RoundingMode.HALF_UP)
+        ));
+        bulkCalculator = new BulkCalculator(factory, 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkCalculator.shutdown();
+    }
+
+    @Test
+    void calculate_mixedOperations_keepsRequestOrder() {
+        String[] operations = {"sum", "subtraction", "multiplication", "division"};
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(new Item(
+                operations[random.nextInt(operations.length)],
+                BigDecimal.valueOf(random.nextInt(10_000) - 5_000, 2),
+                BigDecimal.valueOf(random.nextInt(10_000) + 1, 2)
+            ));
+        }
+
+        List<Result> results = bulkCalculator.calculate(items);
+
+        assertThat(results).hasSize(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            BigDecimal expected = factory.getOperation(item.operation()).calculate(item.a(), item.b());
+            assertThat(results.get(i)).isEqualTo(new Result(expected, null));
+        }
+    }
+
+    @Test
+    void calculate_failingItems_reportErrorsPerItem() {
+        List<Result> results = bulkCalculator.calculate(List.of(
+            new Item("sum", new BigDecimal("1"), new BigDecimal("2")),
+            new Item("division", new BigDecimal("1"), BigDecimal.ZERO),
+            new Item("modulo", new BigDecimal("1"), new BigDecimal("2")),
+            new Item("DIVISION", new BigDecimal("1"), new BigDecimal("4"))
+        ));
+
+        assertThat(results).containsExactly(
+            new Result(new BigDecimal("3"), null),
+            new Result(null, "Division by zero"),
+            new Result(null, "Unsupported operation: modulo"),
+            new Result(new BigDecimal("0.2500000000"), null)
+        );
+    }
+
+    @Test
+    void calculate_emptyList_returnsEmptyResults() {
+        assertThat(bulkCalculator.calculate(List.of())).isEmpty();
+    }
+
+    @Test
+    void calculate_missingItems_reportErrorsPerItem() {
+        List<Result> results = bulkCalculator.calculate(Arrays.asList(
+            new Item("sum", new BigDecimal("1"), new BigDecimal("2")),
+            null,
+            new Item("sum", new BigDecimal("3"), new BigDecimal("4"))
+        ));
+
+        assertThat(results).containsExactly(
+            new Result(new BigDecimal("3"), null),
+            new Result(null, "Item 1 must have a, b and operation"),
+            new Result(new BigDecimal("7"), null)
+        );
+    }
+
+    @Test
+    void calculate_nullList_returnsEmptyResults() {
+        assertThat(bulkCalculator.calculate(null)).isEmpty();
+    }
+}
@@ -1,20 +1,37 @@
 package com.example.calculatorapi.service;
 
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.codec.WireFormat;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.kafka.Deadline;
 import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.logging.LogSampler;
+import com.example.calculatorapi.service.expression.ExpressionCompiler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,7 +41,6 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CalculatorServiceTest {
-    @InjectMocks
     private CalculatorService calculatorService;
 
     @Mock
@@ -33,17 +49,32 @@ class CalculatorServiceTest {
     @Mock
     private CalculatorOperationFactory operationFactory;
 
+    @Mock
+    private ExpressionCompiler expressionCompiler;
+
+    @Mock
+    private BulkCalculator bulkCalculator;
+
+    @Mock
+    private KafkaTemplate<String, BulkCalculationResponse> bulkKafkaTemplate;
+
     @Mock
     private CalculatorOperation calculatorOperation;
 
+    @Mock
+    private CalculatorOperation divisionOperation;
+
     @Captor
     private ArgumentCaptor<CalculationResponse> responseCaptor;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private String correlationId;
     private CalculationRequest request;
 
     @BeforeEach
     void setUp() {
+        calculatorService = newService(ResultCache.disabled(), ReplyIndex.disabled());
         correlationId = UUID.randomUUID().toString();
         request = new CalculationRequest(
             "sum",
@@ -53,6 +84,15 @@ class CalculatorServiceTest {
         );
     }
 
+    private final PriorityLanes lanes = new PriorityLanes(List::of, 100, 900, 100);
+
+    private CalculatorService newService(ResultCache resultCache, ReplyIndex replies) {
+        var metrics = new CalculatorMetrics(meterRegistry, List.of());
+        var processor = new CalculationProcessor(operationFactory, resultCache, metrics);
+        return new CalculatorService(kafkaTemplate, processor, expressionCompiler, bulkCalculator, bulkKafkaTemplate,
+            new LogSampler(1), new KeyOrderedDispatcher(1), metrics, lanes, replies);
+    }
+
     @Test
     @SneakyThrows
     void handleCalculation_successfulOperation_sendsSuccessResponse() {
@@ -61,9 +101,9 @@ class CalculatorServiceTest {
         when(calculatorOperation.calculate(request.a(), request.b()))
             .thenReturn(new BigDecimal("16.0"));
 
-        calculatorService.handleCalculation(request);
+        calculatorService.handleCalculation(request, null, null, null);
 
-        verify(kafkaTemplate).send(eq("calc-responses"), responseCaptor.capture());
+        verify(kafkaTemplate).send(eq("calc-responses"), eq(correlationId), responseCaptor.capture());
         CalculationResponse response = responseCaptor.getValue();
         assertThat(response.correlationId()).isEqualTo(correlationId);
         assertThat(response.result()).isEqualTo(new BigDecimal("16.0"));
@@ -85,13 +125,14 @@ class CalculatorServiceTest {
             correlationId
         );
 
-        calculatorService.handleCalculation(request);
+        calculatorService.handleCalculation(request, null, null, null);
 
-        verify(kafkaTemplate).send(eq("calc-responses"), responseCaptor.capture());
+        verify(kafkaTemplate).send(eq("calc-responses"), anyString(), responseCaptor.capture());
         CalculationResponse response = responseCaptor.getValue();
         assertThat(response.correlationId()).isEqualTo(correlationId);
         assertThat(response.result()).isNull();
         assertThat(response.errorMessage()).isEqualTo("Division by zero");
+        assertThat(meterRegistry.counter("calculator.errors", "type", "arithmetic").count()).isEqualTo(1);
     }
 
     @Test
@@ -108,9 +149,9 @@ class CalculatorServiceTest {
             correlationId
         );
 
-        calculatorService.handleCalculation(request);
+        calculatorService.handleCalculation(request, null, null, null);
 
-        verify(kafkaTemplate).send(eq("calc-responses"), responseCaptor.capture());
+        verify(kafkaTemplate).send(eq("calc-responses"), anyString(), responseCaptor.capture());
         CalculationResponse response = responseCaptor.getValue();
         assertThat(response.correlationId()).isEqualTo(correlationId);
         assertThat(response.result()).isNull();
@@ -125,12 +166,232 @@ class CalculatorServiceTest {
         when(calculatorOperation.calculate(any(), any()))
             .thenThrow(new RuntimeException("Unexpected error"));
 
-        calculatorService.handleCalculation(request);
+        calculatorService.handleCalculation(request, null, null, null);
 
-        verify(kafkaTemplate).send(eq("calc-responses"), responseCaptor.capture());
+        verify(kafkaTemplate).send(eq("calc-responses"), anyString(), responseCaptor.capture());
         CalculationResponse response = responseCaptor.getValue();
         assertThat(response.correlationId()).isEqualTo(correlationId);
         assertThat(response.result()).isNull();
         assertThat(response.errorMessage()).isEqualTo("Internal server error");
     }
-} 
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void handleCalculation_replyTopicHeader_sendsResponseToReplyTopic() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(request.a(), request.b()))
+            .thenReturn(new BigDecimal("16.0"));
+
+        calculatorService.handleCalculation(request, "calc-responses.rest-1", null, null);
+
+        verify(kafkaTemplate).send(eq("calc-responses.rest-1"), anyString(), responseCaptor.capture());
+        assertThat(responseCaptor.getValue().correlationId()).isEqualTo(correlationId);
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void handleCalculation_repeatedRequest_isServedFromResultCache() {
+        var resultCache = new ResultCache("test", 100, Duration.ofMinutes(1));
+        calculatorService = newService(resultCache, ReplyIndex.disabled());
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.cacheKey(request.a(), request.b()))
+            .thenReturn(CalculationKey.exact("sum", request.a(), request.b()));
+        when(calculatorOperation.calculate(request.a(), request.b()))
+            .thenReturn(new BigDecimal("16.0"));
+
+        calculatorService.handleCalculation(request, null, null, null);
+        calculatorService.handleCalculation(request, null, null, null);
+
+        verify(calculatorOperation, times(1)).calculate(any(), any());
+        verify(kafkaTemplate, times(2)).send(eq("calc-responses"), anyString(), responseCaptor.capture());
+        assertThat(responseCaptor.getAllValues()).extracting(CalculationResponse::result)
+            .containsExactly(new BigDecimal("16.0"), new BigDecimal("16.0"));
+        assertThat(resultCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void handleCalculations_batchWithFailingRecord_repliesToEveryRecordAndFlushesOnce() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(operationFactory.getOperation("division")).thenReturn(divisionOperation);
+        when(calculatorOperation.calculate(any(), any())).thenReturn(new BigDecimal("16.0"));
+        when(divisionOperation.calculate(any(), any())).thenThrow(new ArithmeticException("Division by zero"));
+
+        var division = new CalculationRequest("division", new BigDecimal("10"), BigDecimal.ZERO, "id-2");
+        var sum = new CalculationRequest("sum", new BigDecimal("10.5"), new BigDecimal("5.5"), "id-3");
+        var routedRecord = new ConsumerRecord<String, CalculationRequest>("calc-requests", 0, 2, null, sum);
+        routedRecord.headers().add(KafkaHeaders.REPLY_TOPIC, "calc-responses.rest-1".getBytes(StandardCharsets.UTF_8));
+
+        calculatorService.handleCalculations(List.of(
+            new ConsumerRecord<>("calc-requests", 0, 0, null, request),
+            new ConsumerRecord<>("calc-requests", 0, 1, null, division),
+            routedRecord
+        ));
+
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send("calc-responses", correlationId, new CalculationResponse(correlationId, new BigDecimal("16.0"), null));
+        inOrder.verify(kafkaTemplate).send("calc-responses", "id-2", new CalculationResponse("id-2", null, "Division by zero"));
+        inOrder.verify(kafkaTemplate).send("calc-responses.rest-1", "id-3", new CalculationResponse("id-3", new BigDecimal("16.0"), null));
+        inOrder.verify(kafkaTemplate).flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void handleExpression_evaluatesCompiledExpression_sendsResultToReplyTopic() {
+
+        Map<String, BigDecimal> variables = Map.of("a", new BigDecimal("2"));
+        when(expressionCompiler.compile("a * a")).thenReturn(bindings -> bindings.get("a").pow(2));
+
+        calculatorService.handleExpression(new ExpressionRequest("a * a", variables, correlationId), "calc-responses.rest-1", null);
+
+        verify(kafkaTemplate).send("calc-responses.rest-1", correlationId, new CalculationResponse(correlationId, new BigDecimal("4"), null));
+    }
+
+    @Test
+    void handleExpression_invalidExpression_sendsErrorResponse() {
+
+        when(expressionCompiler.compile("1 +"))
+            .thenThrow(new IllegalArgumentException("Unexpected end of expression at position 3 in expression: 1 +"));
+
+        calculatorService.handleExpression(new ExpressionRequest("1 +", Map.of(), correlationId), null, null);
+
+        verify(kafkaTemplate).send(eq("calc-responses"), anyString(), responseCaptor.capture());
+        assertThat(responseCaptor.getValue().result()).isNull();
+        assertThat(responseCaptor.getValue().errorMessage())
+            .isEqualTo("Unexpected end of expression at position 3 in expression: 1 +");
+    }
+
+    @Test
+    void handleBulkCalculation_sendsAllResultsInOneResponse() {
+
+        List<BulkCalculationRequest.Item> items = List.of(
+            new BulkCalculationRequest.Item("sum", BigDecimal.ONE, BigDecimal.TEN),
+            new BulkCalculationRequest.Item("division", BigDecimal.ONE, BigDecimal.ZERO)
+        );
+        List<BulkCalculationResponse.Result> results = List.of(
+            new BulkCalculationResponse.Result(new BigDecimal("11"), null),
+            new BulkCalculationResponse.Result(null, "Division by zero")
+        );
+        when(bulkCalculator.calculate(items)).thenReturn(results);
+
+        calculatorService.handleBulkCalculation(new BulkCalculationRequest(items, correlationId), "calc-bulk-responses.rest-1", null);
+
+        verify(bulkKafkaTemplate).send("calc-bulk-responses.rest-1", correlationId, new BulkCalculationResponse(correlationId, results));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void handleCalculation_pastDeadline_isSkippedAndCounted() {
+
+        calculatorService.handleCalculation(request, null, Deadline.encode(System.currentTimeMillis() - 1), null);
+
+        verifyNoInteractions(operationFactory, kafkaTemplate);
+        assertThat(meterRegistry.get("calculator.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleCalculation_beforeDeadline_repliesWithTheDeadline() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(request.a(), request.b())).thenReturn(new BigDecimal("16.0"));
+        byte[] deadline = Deadline.encode(System.currentTimeMillis() + 60_000);
+
+        calculatorService.handleCalculation(request, "calc-responses.rest-1", deadline, null);
+
+        ArgumentCaptor<ProducerRecord<String, CalculationResponse>> record = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(record.capture());
+        assertThat(record.getValue().topic()).isEqualTo("calc-responses.rest-1");
+        assertThat(record.getValue().value()).isEqualTo(new CalculationResponse(correlationId, new BigDecimal("16.0"), null));
+        assertThat(record.getValue().headers().lastHeader(Deadline.HEADER).value()).isEqualTo(deadline);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleCalculation_binaryRequest_repliesInBinary() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(request.a(), request.b())).thenReturn(new BigDecimal("16.0"));
+        byte[] binary = WireFormat.BINARY.name().getBytes(StandardCharsets.UTF_8);
+
+        calculatorService.handleCalculation(request, null, null, binary);
+
+        ArgumentCaptor<ProducerRecord<String, CalculationResponse>> record = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(record.capture());
+        assertThat(record.getValue().headers().lastHeader(WireFormat.HEADER).value()).isEqualTo(binary);
+        assertThat(record.getValue().headers().lastHeader(Deadline.HEADER)).isNull();
+    }
+
+    @Test
+    void handleCalculations_pastDeadline_skipsOnlyExpiredRecords() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(any(), any())).thenReturn(new BigDecimal("16.0"));
+        var expired = new ConsumerRecord<String, CalculationRequest>("calc-requests", 0, 0, null,
+            new CalculationRequest("sum", BigDecimal.ONE, BigDecimal.TWO, "id-expired"));
+        expired.headers().add(Deadline.HEADER, Deadline.encode(System.currentTimeMillis() - 1));
+
+        calculatorService.handleCalculations(List.of(expired, new ConsumerRecord<>("calc-requests", 0, 1, null, request)));
+
+        verify(kafkaTemplate).send("calc-responses", correlationId, new CalculationResponse(correlationId, new BigDecimal("16.0"), null));
+        verify(kafkaTemplate).flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+        assertThat(meterRegistry.get("calculator.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void handleBulkCalculation_pastDeadline_isSkipped() {
+
+        var bulkRequest = new BulkCalculationRequest(List.of(new BulkCalculationRequest.Item("sum", BigDecimal.ONE, BigDecimal.TEN)),
+            correlationId);
+
+        calculatorService.handleBulkCalculation(bulkRequest, null, Deadline.encode(System.currentTimeMillis() - 1));
+
+        verifyNoInteractions(bulkCalculator, bulkKafkaTemplate);
+    }
+
+    @Test
+    void handleCalculation_interactiveLane_holdsBackBatchLane() {
+
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(request.a(), request.b())).thenReturn(new BigDecimal("16.0"));
+
+        calculatorService.handleBatchLaneCalculation(request, null, null, null);
+        lanes.adjust(System.nanoTime());
+        assertThat(lanes.paused()).isFalse();
+
+        calculatorService.handleCalculation(request, null, null, null);
+        lanes.adjust(System.nanoTime());
+        assertThat(lanes.paused()).isTrue();
+        verify(kafkaTemplate, times(2)).send("calc-responses", correlationId, new CalculationResponse(correlationId, new BigDecimal("16.0"), null));
+    }
+
+    @Test
+    void handleCalculation_redelivered_repliesWithoutRecomputing() {
+
+        calculatorService = newService(ResultCache.disabled(), new ReplyIndex(100));
+        when(operationFactory.getOperation("sum")).thenReturn(calculatorOperation);
+        when(calculatorOperation.calculate(request.a(), request.b())).thenReturn(new BigDecimal("16.0"));
+
+        calculatorService.handleCalculation(request, null, null, null);
+        calculatorService.handleCalculation(request, null, null, null);
+
+        verify(calculatorOperation, times(1)).calculate(any(), any());
+        verify(kafkaTemplate, times(2)).send("calc-responses", correlationId, new CalculationResponse(correlationId, new BigDecimal("16.0"), null));
+    }
+
+    @Test
+    void handleExpression_redelivered_repliesWithoutReevaluating() {
+
+        calculatorService = newService(ResultCache.disabled(), new ReplyIndex(100));
+        var expressionRequest = new ExpressionRequest("a / 0", Map.of("a", BigDecimal.ONE), correlationId);
+        when(expressionCompiler.compile("a / 0")).thenThrow(new ArithmeticException("Division by zero"));
+
+        calculatorService.handleExpression(expressionRequest, null, null);
+        calculatorService.handleExpression(expressionRequest, null, null);
+
+        verify(expressionCompiler, times(1)).compile("a / 0");
+        verify(kafkaTemplate, times(2)).send("calc-responses", correlationId, new CalculationResponse(correlationId, null, "Division by zero"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.calculatorapi.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_SequentialMode_HandlesRecordsOnCallerInOffsetOrder() {
+        dispatcher = new KeyOrderedDispatcher(1);
+        List<Long> handled = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+
+        dispatcher.dispatch(records("a", "b", "a", null), record -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            handled.add(record.offset());
+        });
+
+        assertThat(handled).containsExactly(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void dispatch_SameKey_KeepsOffsetOrder() {
+        dispatcher = new KeyOrderedDispatcher(4);
+        Map<String, List<Long>> handled = new ConcurrentHashMap<>();
+
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            records.add(new ConsumerRecord<>("calc-requests", 0, i, "key-" + (i % 4), "value"));
+        }
+        dispatcher.dispatch(records, record -> handled
+            .computeIfAbsent(record.key(), k -> Collections.synchronizedList(new ArrayList<>()))
+            .add(record.offset()));
+
+        assertThat(handled).hasSize(4);
+        handled.values().forEach(offsets -> assertThat(offsets).hasSize(100).isSorted());
+    }
+
+    @Test
+    void dispatch_DifferentKeys_RunConcurrently() {
+        dispatcher = new KeyOrderedDispatcher(2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<Boolean> overlapped = Collections.synchronizedList(new ArrayList<>());
+
+        dispatcher.dispatch(records("a", "b"), record -> {
+            bothStarted.countDown();
+            try {
+                overlapped.add(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(overlapped).containsExactly(true, true);
+    }
+
+    @Test
+    void dispatch_HandlerFails_RethrowsAfterBatch() {
+        dispatcher = new KeyOrderedDispatcher(2);
+
+        assertThatThrownBy(() -> dispatcher.dispatch(records("a", "b"), record -> {
+            if ("b".equals(record.key())) {
+                throw new IllegalStateException("broken");
+            }
+        })).isInstanceOf(IllegalStateException.class).hasMessage("broken");
+    }
+
+    private static List<ConsumerRecord<String, String>> records(String... keys) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            records.add(new ConsumerRecord<>("calc-requests", 0, i, keys[i], "value"));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.calculatorapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PriorityLanesTest {
+
+    private final MessageListenerContainer batchLane = mock(MessageListenerContainer.class);
+    private final PriorityLanes lanes = new PriorityLanes(() -> List.of(batchLane), 100, 900, 100);
+    // a clock of our own, safely past the one the lanes were created with
+    private final long start = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+
+    private long at(long millis) {
+        return start + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void adjust_NoInteractiveRequests_LeavesBatchLaneRunning() {
+        lanes.adjust(at(0));
+
+        assertThat(lanes.paused()).isFalse();
+        verifyNoInteractions(batchLane);
+    }
+
+    @Test
+    void adjust_InteractiveRequest_PausesBatchLaneUntilIdle() {
+        when(batchLane.isRunning()).thenReturn(true);
+        lanes.interactive(at(0));
+
+        lanes.adjust(at(10));
+        assertThat(lanes.paused()).isTrue();
+        verify(batchLane).pause();
+
+        lanes.adjust(at(50));
+        assertThat(lanes.paused()).isTrue();
+
+        lanes.adjust(at(110));
+        assertThat(lanes.paused()).isFalse();
+        verify(batchLane).resume();
+        assertThat(lanes.pauses()).isEqualTo(1);
+    }
+
+    @Test
+    void adjust_SustainedInteractiveLoad_StillRunsBatchLane() {
+        when(batchLane.isRunning()).thenReturn(true);
+        lanes.interactive(at(0));
+        lanes.adjust(at(0));
+
+        // the interactive lane stays busy, but the pause is capped at max-pause-ms
+        lanes.interactive(at(880));
+        lanes.adjust(at(890));
+        assertThat(lanes.paused()).isTrue();
+        lanes.adjust(at(900));
+        assertThat(lanes.paused()).isFalse();
+        verify(batchLane).resume();
+
+        // and the batch lane then runs for at least min-run-ms before it is paused again
+        lanes.interactive(at(950));
+        lanes.adjust(at(950));
+        assertThat(lanes.paused()).isFalse();
+        lanes.adjust(at(1000));
+        assertThat(lanes.paused()).isTrue();
+        verify(batchLane, times(2)).pause();
+    }
+
+    @Test
+    void adjust_StoppedContainer_IsNotPaused() {
+        lanes.interactive(at(0));
+
+        lanes.adjust(at(0));
+
+        assertThat(lanes.paused()).isTrue();
+        verify(batchLane, never()).pause();
+    }
+}
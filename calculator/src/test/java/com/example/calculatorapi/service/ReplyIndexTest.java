@@ -0,0 +1,50 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplyIndexTest {
+
+    private final AtomicInteger calculations = new AtomicInteger();
+
+    private CalculationResponse calculate(String id) {
+        calculations.incrementAndGet();
+        return new CalculationResponse(id, BigDecimal.valueOf(calculations.get()), null);
+    }
+
+    @Test
+    void answer_SameCorrelationId_ReturnsFirstReply() {
+        var replies = new ReplyIndex(10);
+
+        CalculationResponse first = replies.answer("id-1", () -> calculate("id-1"));
+        CalculationResponse again = replies.answer("id-1", () -> calculate("id-1"));
+
+        assertThat(again).isEqualTo(first);
+        assertThat(calculations).hasValue(1);
+    }
+
+    @Test
+    void answer_OtherCorrelationId_Calculates() {
+        var replies = new ReplyIndex(10);
+
+        replies.answer("id-1", () -> calculate("id-1"));
+        replies.answer("id-2", () -> calculate("id-2"));
+
+        assertThat(calculations).hasValue(2);
+    }
+
+    @Test
+    void disabled_AlwaysCalculates() {
+        var replies = ReplyIndex.disabled();
+
+        replies.answer("id-1", () -> calculate("id-1"));
+        replies.answer("id-1", () -> calculate("id-1"));
+
+        assertThat(calculations).hasValue(2);
+    }
+}
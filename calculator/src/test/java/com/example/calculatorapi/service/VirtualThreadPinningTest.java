@@ -0,0 +1,113 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.logging.LogSampler;
+import com.example.calculatorapi.service.expression.ExpressionCompiler;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the {@code jdk.VirtualThreadPinned} JFR events, the ones
+ * {@code -Djdk.tracePinnedThreads} prints, while requests are handled on virtual threads
+ * and answered through a real producer against an embedded broker.
+ */
+@EmbeddedKafka(partitions = 1, topics = "calc-responses")
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Test
+    void handleCalculation_onVirtualThreads_doesNotPinCarrierThreads(EmbeddedKafkaBroker broker) throws Exception {
+
+        var producerFactory = new DefaultKafkaProducerFactory<String, CalculationResponse>(
+            Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+            new StringSerializer(), new JsonSerializer<>());
+        KafkaTemplate<String, CalculationResponse> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        CalculatorOperationFactory operationFactory = new CalculatorOperationFactory(List.of(
+            new SumOperation(),
+            new DivisionOperation(10, RoundingMode.HALF_UP)
+        ));
+        var metrics = new CalculatorMetrics(new SimpleMeterRegistry(), List.of());
+        var processor = new CalculationProcessor(operationFactory, new ResultCache("test", 100, Duration.ofMinutes(1)), metrics);
+        CalculatorService service = new CalculatorService(kafkaTemplate, processor,
+            new ExpressionCompiler(operationFactory, 16, 1000, 64), null, null, new LogSampler(1), new KeyOrderedDispatcher(1), metrics,
+            new PriorityLanes(List::of, 100, 900, 100), ReplyIndex.disabled());
+
+        long pinned = countPinnedEvents(200, () -> {
+            service.handleCalculation(new CalculationRequest(
+                "division",
+                new BigDecimal("10"),
+                new BigDecimal("3"),
+                UUID.randomUUID().toString()
+            ), null, null, null);
+            return null;
+        });
+        kafkaTemplate.flush();
+        producerFactory.destroy();
+
+        assertThat(pinned).isZero();
+        try (var consumer = new DefaultKafkaConsumerFactory<String, String>(
+                KafkaTestUtils.consumerProps("pinning-test", "false", broker)).createConsumer()) {
+            assertThat(KafkaTestUtils.getEndOffsets(consumer, "calc-responses").values()).containsExactly(200L);
+        }
+    }
+
+    @Test
+    void countPinnedEvents_blockingInsideMonitor_isDetected() throws Exception {
+
+        Object monitor = new Object();
+
+        long pinned = countPinnedEvents(1, () -> {
+            synchronized (monitor) {
+                Thread.sleep(5);
+            }
+            return null;
+        });
+
+        assertThat(pinned).isPositive();
+    }
+
+    private long countPinnedEvents(int tasks, Callable<Void> task) throws Exception {
+        AtomicLong pinned = new AtomicLong();
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+            stream.onEvent(PINNED_EVENT, event -> pinned.incrementAndGet());
+            stream.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < tasks; i++) {
+                    executor.submit(task);
+                }
+            }
+            stream.stop();
+        }
+        return pinned.get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.calculatorapi.service.expression;
+
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionCompilerTest {
+
+    private ExpressionCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        CalculatorOperationFactory factory = new CalculatorOperationFactory(List.of(
+            new SumOperation(),
+            new SubtractionOperation(),
+            new MultiplicationOperation(1, RoundingMode.HALF_UP),
+            new DivisionOperation(10, RoundingMode.HALF_UP)
+        ));
+        compiler = new ExpressionCompiler(factory, 2, 1000, 64);
+    }
+
+    @Test
+    void compile_respectsPrecedenceAndParentheses() {
+        Map<String, BigDecimal> variables = Map.of(
+            "a", new BigDecimal("1.5"),
+            "b", new BigDecimal("2.5"),
+            "c", new BigDecimal("3"),
+            "d", new BigDecimal("4")
+        );
+
+        assertThat(compiler.compile("(a + b) * c / d").evaluate(variables)).isEqualByComparingTo("3");
+        assertThat(compiler.compile("a + b * c").evaluate(variables)).isEqualByComparingTo("9");
+        assertThat(compiler.compile("10 - 4 - 3").evaluate(variables)).isEqualByComparingTo("3");
+        assertThat(compiler.compile("-a + -(b - c)").evaluate(variables)).isEqualByComparingTo("-1");
+    }
+
+    @Test
+    void compile_usesConfiguredOperations() {
+        assertThat(compiler.compile("1 / 3").evaluate(Map.of())).isEqualTo(new BigDecimal("0.3333333333"));
+        assertThat(compiler.compile("1.25 * 1.25").evaluate(Map.of())).isEqualTo(new BigDecimal("1.6"));
+    }
+
+    @Test
+    void compile_sameText_returnsCachedTree() {
+        CompiledExpression first = compiler.compile("x * 2");
+
+        assertThat(compiler.compile("x * 2")).isSameAs(first);
+        assertThat(first.evaluate(Map.of("x", BigDecimal.ONE))).isEqualByComparingTo("2");
+        assertThat(first.evaluate(Map.of("x", BigDecimal.TEN))).isEqualByComparingTo("20");
+    }
+
+    @Test
+    void compile_keepsTheCacheBounded() {
+        for (int i = 0; i < 50; i++) {
+            compiler.compile(i + " + 1");
+        }
+
+        assertThat(compiler.cacheSize()).isEqualTo(2);
+    }
+
+    @Test
+    void compile_invalidExpression_throwsException() {
+        assertThatThrownBy(() -> compiler.compile("1 +"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unexpected end of expression at position 3 in expression: 1 +");
+        assertThatThrownBy(() -> compiler.compile("(1 + 2"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Missing ')'");
+        assertThatThrownBy(() -> compiler.compile("1 2"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unexpected '2'");
+        assertThatThrownBy(() -> compiler.compile("1.2.3"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid number '1.2.3'");
+    }
+
+    @Test
+    void compile_pathologicalInput_isRejectedWithoutOverflowingTheStack() {
+        String deepParentheses = "(".repeat(100_000) + "1" + ")".repeat(100_000);
+        String longChain = "1" + "+1".repeat(100_000);
+
+        assertThatThrownBy(() -> compiler.compile(deepParentheses))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Expression longer than 1000 characters");
+        assertThatThrownBy(() -> compiler.compile(longChain))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Expression longer than 1000 characters");
+        assertThatThrownBy(() -> compiler.compile("(".repeat(65) + "1" + ")".repeat(65)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Nested deeper than 64 levels");
+        assertThatThrownBy(() -> compiler.compile("-".repeat(65) + "1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Nested deeper than 64 levels");
+
+        assertThat(compiler.compile("(".repeat(64) + "1" + ")".repeat(64)).evaluate(Map.of())).isEqualByComparingTo("1");
+        assertThat(compiler.compile("1" + "+1".repeat(499)).evaluate(Map.of())).isEqualByComparingTo("500");
+    }
+
+    @Test
+    void evaluate_unboundVariableOrDivisionByZero_throwsException() {
+        assertThatThrownBy(() -> compiler.compile("a + b").evaluate(Map.of("a", BigDecimal.ONE)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unbound variable: b");
+        assertThatThrownBy(() -> compiler.compile("a / 0").evaluate(Map.of("a", BigDecimal.ONE)))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessage("Division by zero");
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.calculatorapi.aot;
+
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.dto.Operation;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection the contract relies on in a native image: Jackson binds the Kafka DTOs through
+ * their constructors and accessors. Both services import it with {@code @ImportRuntimeHints}.
+ */
+public class ContractRuntimeHints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindings.registerReflectionHints(hints.reflection(),
+            CalculationRequest.class, CalculationResponse.class,
+            BulkCalculationRequest.class, BulkCalculationResponse.class,
+            ExpressionRequest.class, Operation.class);
+    }
+}
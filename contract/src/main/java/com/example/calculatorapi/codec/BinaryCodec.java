@@ -0,0 +1,225 @@
+package com.example.calculatorapi.codec;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.Operation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the contract DTOs.
+ * <p>
+ * Layout: a version byte, a flags byte, then the fields. Operations are written as the
+ * {@link Operation} ordinal and correlation ids as 16 raw UUID bytes; values that have no
+ * compact form (unknown operations, non-UUID ids) fall back to length-prefixed UTF-8.
+ * Decimals are a zig-zag varint scale followed by the length-prefixed unscaled value.
+ */
+public final class BinaryCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final int OPERATION_AS_STRING = 1;
+    private static final int ID_AS_STRING = 1 << 1;
+    private static final int HAS_RESULT = 1 << 2;
+    private static final int HAS_ERROR = 1 << 3;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private BinaryCodec() {
+    }
+
+    public static byte[] encode(CalculationRequest request) {
+        int operation = operationOrdinal(request.operation());
+        UUID id = uuidOf(request.correlationId());
+        byte[] operationText = operation < 0 ? utf8(request.operation()) : null;
+        byte[] idText = id == null ? utf8(request.correlationId()) : null;
+        byte[] a = request.a().unscaledValue().toByteArray();
+        byte[] b = request.b().unscaledValue().toByteArray();
+
+        int flags = (operation < 0 ? OPERATION_AS_STRING : 0) | (id == null ? ID_AS_STRING : 0);
+        int size = 2
+            + (operation < 0 ? sizeOfBytes(operationText) : 1)
+            + (id == null ? sizeOfBytes(idText) : 16)
+            + sizeOfDecimal(request.a(), a)
+            + sizeOfDecimal(request.b(), b);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION).put((byte) flags);
+        if (operation < 0) {
+            putBytes(buffer, operationText);
+        } else {
+            buffer.put((byte) operation);
+        }
+        putId(buffer, id, idText);
+        putDecimal(buffer, request.a(), a);
+        putDecimal(buffer, request.b(), b);
+        return buffer.array();
+    }
+
+    public static CalculationRequest decodeRequest(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int flags = readHeader(buffer);
+        String operation = (flags & OPERATION_AS_STRING) != 0
+            ? getString(buffer)
+            : OPERATIONS[buffer.get()].name().toLowerCase();
+        String correlationId = getId(buffer, flags);
+        BigDecimal a = getDecimal(buffer);
+        BigDecimal b = getDecimal(buffer);
+        return new CalculationRequest(operation, a, b, correlationId);
+    }
+
+    public static byte[] encode(CalculationResponse response) {
+        UUID id = uuidOf(response.correlationId());
+        byte[] idText = id == null ? utf8(response.correlationId()) : null;
+        byte[] result = response.result() != null ? response.result().unscaledValue().toByteArray() : null;
+        byte[] error = response.errorMessage() != null ? utf8(response.errorMessage()) : null;
+
+        int flags = (id == null ? ID_AS_STRING : 0)
+            | (result != null ? HAS_RESULT : 0)
+            | (error != null ? HAS_ERROR : 0);
+        int size = 2
+            + (id == null ? sizeOfBytes(idText) : 16)
+            + (result != null ? sizeOfDecimal(response.result(), result) : 0)
+            + (error != null ? sizeOfBytes(error) : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION).put((byte) flags);
+        putId(buffer, id, idText);
+        if (result != null) {
+            putDecimal(buffer, response.result(), result);
+        }
+        if (error != null) {
+            putBytes(buffer, error);
+        }
+        return buffer.array();
+    }
+
+    public static CalculationResponse decodeResponse(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int flags = readHeader(buffer);
+        String correlationId = getId(buffer, flags);
+        BigDecimal result = (flags & HAS_RESULT) != 0 ? getDecimal(buffer) : null;
+        String error = (flags & HAS_ERROR) != 0 ? getString(buffer) : null;
+        return new CalculationResponse(correlationId, result, error);
+    }
+
+    private static int readHeader(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary format version: " + version);
+        }
+        return buffer.get();
+    }
+
+    private static int operationOrdinal(String operation) {
+        for (Operation candidate : OPERATIONS) {
+            if (candidate.name().toLowerCase().equals(operation)) {
+                return candidate.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    // only ids that survive a UUID round trip unchanged are packed, so decoding is lossless
+    private static UUID uuidOf(String correlationId) {
+        if (correlationId == null || correlationId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(correlationId);
+            return uuid.toString().equals(correlationId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void putId(ByteBuffer buffer, UUID id, byte[] idText) {
+        if (id == null) {
+            putBytes(buffer, idText);
+        } else {
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+    }
+
+    private static String getId(ByteBuffer buffer, int flags) {
+        if ((flags & ID_AS_STRING) != 0) {
+            return getString(buffer);
+        }
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    private static int sizeOfDecimal(BigDecimal value, byte[] unscaled) {
+        return sizeOfVarint(zigZag(value.scale())) + sizeOfBytes(unscaled);
+    }
+
+    private static void putDecimal(ByteBuffer buffer, BigDecimal value, byte[] unscaled) {
+        putVarint(buffer, zigZag(value.scale()));
+        putBytes(buffer, unscaled);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int zigZagScale = getVarint(buffer);
+        int scale = (zigZagScale >>> 1) ^ -(zigZagScale & 1);
+        return new BigDecimal(new BigInteger(getBytes(buffer)), scale);
+    }
+
+    private static int sizeOfBytes(byte[] bytes) {
+        return sizeOfVarint(bytes.length) + bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[getVarint(buffer)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        return new String(getBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int sizeOfVarint(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
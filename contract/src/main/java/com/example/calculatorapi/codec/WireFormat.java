@@ -0,0 +1,8 @@
+package com.example.calculatorapi.codec;
+
+public enum WireFormat {
+    JSON,
+    BINARY;
+
+    public static final String HEADER = "calc_wireFormat";
+}
@@ -0,0 +1,47 @@
+package com.example.calculatorapi.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+public class WireFormatDeserializer<T> implements Deserializer<T> {
+
+    private static final byte[] BINARY = WireFormat.BINARY.name().getBytes(StandardCharsets.UTF_8);
+
+    private final Deserializer<T> jsonDeserializer;
+    private final Function<byte[], T> binaryDecoder;
+
+    public WireFormatDeserializer(Deserializer<T> jsonDeserializer, Function<byte[], T> binaryDecoder) {
+        this.jsonDeserializer = jsonDeserializer;
+        this.binaryDecoder = binaryDecoder;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Header format = headers.lastHeader(WireFormat.HEADER);
+        if (format != null && data != null && Arrays.equals(format.value(), BINARY)) {
+            return binaryDecoder.apply(data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
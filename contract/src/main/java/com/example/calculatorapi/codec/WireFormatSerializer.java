@@ -0,0 +1,62 @@
+package com.example.calculatorapi.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes records in the configured {@link WireFormat}, unless the record already carries a
+ * {@link WireFormat#HEADER}: a reply marked with its request's format is written in that one.
+ */
+public class WireFormatSerializer<T> implements Serializer<T> {
+
+    private static final byte[] BINARY = WireFormat.BINARY.name().getBytes(StandardCharsets.UTF_8);
+
+    private final Serializer<T> jsonSerializer;
+    private final Function<T, byte[]> binaryEncoder;
+    private final WireFormat format;
+
+    public WireFormatSerializer(Serializer<T> jsonSerializer, Function<T, byte[]> binaryEncoder, WireFormat format) {
+        this.jsonSerializer = jsonSerializer;
+        this.binaryEncoder = binaryEncoder;
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (formatOf(headers) == WireFormat.BINARY && data != null) {
+            headers.remove(WireFormat.HEADER);
+            headers.add(WireFormat.HEADER, BINARY);
+            return binaryEncoder.apply(data);
+        }
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    private WireFormat formatOf(Headers headers) {
+        Header header = headers.lastHeader(WireFormat.HEADER);
+        if (header == null) {
+            return format;
+        }
+        return Arrays.equals(header.value(), BINARY) ? WireFormat.BINARY : WireFormat.JSON;
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.calculatorapi.dto;
+
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BulkCalculationRequest(
+    @NonNull List<Item> items,
+    @NonNull String correlationId
+) {
+
+    public record Item(
+        @NonNull String operation,
+        @NonNull BigDecimal a,
+        @NonNull BigDecimal b
+    ) {}
+}
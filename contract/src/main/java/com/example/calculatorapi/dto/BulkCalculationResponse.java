@@ -0,0 +1,15 @@
+package com.example.calculatorapi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BulkCalculationResponse(
+    String correlationId,
+    List<Result> results
+) {
+
+    public record Result(
+        BigDecimal result,
+        String errorMessage
+    ) {}
+}
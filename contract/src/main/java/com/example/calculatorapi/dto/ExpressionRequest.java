@@ -0,0 +1,12 @@
+package com.example.calculatorapi.dto;
+
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record ExpressionRequest(
+    @NonNull String expression,
+    @NonNull Map<String, BigDecimal> variables,
+    @NonNull String correlationId
+) {}
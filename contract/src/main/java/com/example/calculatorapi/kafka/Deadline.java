@@ -0,0 +1,37 @@
+package com.example.calculatorapi.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The absolute deadline of a request, in epoch milliseconds written as decimal text, carried
+ * in the {@value #HEADER} record header. The calculator skips a request whose deadline has
+ * passed and copies the header onto its reply, so the REST service can drop a late reply
+ * without looking it up. Each side reads its own wall clock: clock skew between the hosts
+ * moves the cut-off by as much.
+ */
+public final class Deadline {
+    public static final String HEADER = "calc_deadline";
+
+    private Deadline() {
+    }
+
+    public static byte[] encode(long epochMillis) {
+        return Long.toString(epochMillis).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param header the header value, or {@code null} for a record sent without a deadline
+     * @return whether the deadline is at or before {@code nowMillis}; a missing or
+     *         unreadable header never expires
+     */
+    public static boolean expired(byte[] header, long nowMillis) {
+        if (header == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(new String(header, StandardCharsets.US_ASCII)) <= nowMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.calculatorapi.kafka;
+
+import java.util.Locale;
+
+/**
+ * Lane a calculation request travels in. Each lane has its own request topic, so the
+ * calculator can hold back batch work while interactive requests are waiting.
+ */
+public enum Priority {
+    INTERACTIVE("calc-requests"),
+    BATCH("calc-requests-batch");
+
+    private final String topic;
+
+    Priority(String topic) {
+        this.topic = topic;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    /**
+     * Reads a priority name case-insensitively; a missing or unknown name gives {@code fallback}.
+     */
+    public static Priority of(String name, Priority fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
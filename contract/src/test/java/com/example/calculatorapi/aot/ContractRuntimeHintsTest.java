@@ -0,0 +1,28 @@
+package com.example.calculatorapi.aot;
+
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContractRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHints_coversDtosAndTheirAccessors() throws Exception {
+        new ContractRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(CalculationRequest.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+            .onMethod(CalculationResponse.class.getMethod("result"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+            .onMethod(BulkCalculationRequest.class.getMethod("items"))).accepts(hints);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.calculatorapi.codec;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryCodecTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "sum, 10.5, 2.5",
+        "subtraction, -0.001, 1E+3",
+        "multiplication, 123456789012345678901234567890.123, -9.99",
+        "division, 0, 0.00"
+    })
+    void request_roundTrip_preservesValuesAndScale(String operation, String a, String b) {
+        CalculationRequest request = new CalculationRequest(
+            operation, new BigDecimal(a), new BigDecimal(b), UUID.randomUUID().toString());
+
+        CalculationRequest decoded = BinaryCodec.decodeRequest(BinaryCodec.encode(request));
+
+        assertThat(decoded).isEqualTo(request);
+        assertThat(decoded.a().scale()).isEqualTo(request.a().scale());
+        assertThat(decoded.b().scale()).isEqualTo(request.b().scale());
+    }
+
+    @Test
+    void request_unknownOperationAndNonUuidId_fallBackToText() {
+        CalculationRequest request = new CalculationRequest(
+            "SUM", BigDecimal.ONE, BigDecimal.TEN, "test-correlation-id");
+
+        assertThat(BinaryCodec.decodeRequest(BinaryCodec.encode(request))).isEqualTo(request);
+    }
+
+    @Test
+    void request_missingOperand_isRejectedBeforeItCanBeEncoded() {
+        assertThatThrownBy(() -> new CalculationRequest("sum", null, BigDecimal.ONE, "test-correlation-id"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("a is marked non-null but is null");
+    }
+
+    @Test
+    void request_typicalPayload_isCompact() {
+        CalculationRequest request = new CalculationRequest(
+            "sum", new BigDecimal("10.5"), new BigDecimal("2.5"), UUID.randomUUID().toString());
+
+        // version + flags + operation + 16 id bytes + 2 x (scale + length + unscaled)
+        assertThat(BinaryCodec.encode(request)).hasSize(25);
+    }
+
+    @Test
+    void response_roundTrip_withResult() {
+        CalculationResponse response = new CalculationResponse(
+            UUID.randomUUID().toString(), new BigDecimal("3.0000000000"), null);
+
+        assertThat(BinaryCodec.decodeResponse(BinaryCodec.encode(response))).isEqualTo(response);
+    }
+
+    @Test
+    void response_roundTrip_withError() {
+        CalculationResponse response = new CalculationResponse(
+            "test-correlation-id", null, "Division by zero");
+
+        assertThat(BinaryCodec.decodeResponse(BinaryCodec.encode(response))).isEqualTo(response);
+    }
+
+    @Test
+    void decode_unknownVersion_throwsException() {
+        assertThatThrownBy(() -> BinaryCodec.decodeResponse(new byte[] {9, 0}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unsupported binary format version: 9");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.calculatorapi.codec;
+
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatSerializerTest {
+
+    private static final byte[] JSON_PAYLOAD = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final CalculationResponse response =
+        new CalculationResponse(UUID.randomUUID().toString(), new BigDecimal("13.0"), null);
+
+    private final Serializer<CalculationResponse> jsonSerializer = (topic, data) -> JSON_PAYLOAD;
+    private final Deserializer<CalculationResponse> jsonDeserializer = (topic, data) -> response;
+
+    @Test
+    void binaryFormat_marksRecordAndRoundTrips() {
+        var serializer = new WireFormatSerializer<>(jsonSerializer, BinaryCodec::encode, WireFormat.BINARY);
+        var deserializer = new WireFormatDeserializer<>(
+            (topic, data) -> null, BinaryCodec::decodeResponse);
+        var headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize("calc-responses", headers, response);
+
+        assertThat(headers.lastHeader(WireFormat.HEADER).value())
+            .isEqualTo("BINARY".getBytes(StandardCharsets.UTF_8));
+        assertThat(deserializer.deserialize("calc-responses", headers, data)).isEqualTo(response);
+    }
+
+    @Test
+    void jsonFormat_delegatesWithoutHeader() {
+        var serializer = new WireFormatSerializer<>(jsonSerializer, BinaryCodec::encode, WireFormat.JSON);
+        var headers = new RecordHeaders();
+
+        assertThat(serializer.serialize("calc-responses", headers, response)).isEqualTo(JSON_PAYLOAD);
+        assertThat(headers.lastHeader(WireFormat.HEADER)).isNull();
+    }
+
+    @Test
+    void markedRecord_isWrittenInItsOwnFormat() {
+        var binary = new WireFormatSerializer<>(jsonSerializer, BinaryCodec::encode, WireFormat.BINARY);
+        var json = new WireFormatSerializer<>(jsonSerializer, BinaryCodec::encode, WireFormat.JSON);
+        var jsonHeaders = new RecordHeaders().add(WireFormat.HEADER, "JSON".getBytes(StandardCharsets.UTF_8));
+        var binaryHeaders = new RecordHeaders().add(WireFormat.HEADER, "BINARY".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(binary.serialize("calc-responses", jsonHeaders, response)).isEqualTo(JSON_PAYLOAD);
+        assertThat(json.serialize("calc-responses", binaryHeaders, response)).isEqualTo(BinaryCodec.encode(response));
+    }
+
+    @Test
+    void unmarkedRecord_isReadAsJson() {
+        var deserializer = new WireFormatDeserializer<>(jsonDeserializer, data -> {
+            throw new AssertionError("binary decoder must not be used");
+        });
+
+        assertThat(deserializer.deserialize("calc-responses", new RecordHeaders(), JSON_PAYLOAD))
+            .isSameAs(response);
+    }
+}
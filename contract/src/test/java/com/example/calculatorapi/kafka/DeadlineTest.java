@@ -0,0 +1,30 @@
+package com.example.calculatorapi.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineTest {
+
+    @Test
+    void encode_WritesEpochMillisAsText() {
+        assertThat(new String(Deadline.encode(1_700_000_000_123L), StandardCharsets.US_ASCII)).isEqualTo("1700000000123");
+    }
+
+    @Test
+    void expired_ComparesWithNow() {
+        byte[] deadline = Deadline.encode(1000);
+
+        assertThat(Deadline.expired(deadline, 999)).isFalse();
+        assertThat(Deadline.expired(deadline, 1000)).isTrue();
+        assertThat(Deadline.expired(deadline, 1001)).isTrue();
+    }
+
+    @Test
+    void expired_MissingOrUnreadableHeader_NeverExpires() {
+        assertThat(Deadline.expired(null, Long.MAX_VALUE)).isFalse();
+        assertThat(Deadline.expired("soon".getBytes(StandardCharsets.US_ASCII), Long.MAX_VALUE)).isFalse();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.calculatorapi.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityTest {
+
+    @Test
+    void of_ReadsNameCaseInsensitively() {
+        assertThat(Priority.of("batch", Priority.INTERACTIVE)).isEqualTo(Priority.BATCH);
+        assertThat(Priority.of(" Interactive ", Priority.BATCH)).isEqualTo(Priority.INTERACTIVE);
+    }
+
+    @Test
+    void of_MissingOrUnknownName_GivesFallback() {
+        assertThat(Priority.of(null, Priority.INTERACTIVE)).isEqualTo(Priority.INTERACTIVE);
+        assertThat(Priority.of("", Priority.BATCH)).isEqualTo(Priority.BATCH);
+        assertThat(Priority.of("urgent", Priority.INTERACTIVE)).isEqualTo(Priority.INTERACTIVE);
+    }
+
+    @Test
+    void topic_IsOnePerLane() {
+        assertThat(Priority.INTERACTIVE.topic()).isEqualTo("calc-requests");
+        assertThat(Priority.BATCH.topic()).isEqualTo("calc-requests-batch");
+    }
+}
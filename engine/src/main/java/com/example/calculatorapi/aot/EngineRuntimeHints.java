@@ -0,0 +1,19 @@
+package com.example.calculatorapi.aot;
+
+import com.example.calculatorapi.logging.CorrelationIdConverter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection the engine relies on in a native image: Logback creates the converter named in
+ * {@code logback-spring.xml} by class name. Both services import it with
+ * {@code @ImportRuntimeHints}.
+ */
+public class EngineRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(CorrelationIdConverter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.calculatorapi.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/**
+ * Identifies a calculation result: the operation, its operands and whatever settings
+ * decide the shape of the result.
+ *
+ * <p>Operands of an operation that rounds to a fixed scale are compared by value, so
+ * {@code 2 * 3} and {@code 2.0 * 3.00} share an entry. Operations that keep the operand
+ * scale (sum, subtraction) return {@code 5.0} for {@code 2.0 + 3} but {@code 5} for
+ * {@code 2 + 3}, so their operands are kept exactly as given.
+ */
+public record CalculationKey(String operation, BigDecimal a, BigDecimal b, String settings) {
+
+    public static CalculationKey exact(String operation, BigDecimal a, BigDecimal b) {
+        return new CalculationKey(operation.toLowerCase(Locale.ROOT), a, b, "");
+    }
+
+    public static CalculationKey rounded(String operation, BigDecimal a, BigDecimal b, int scale, RoundingMode roundingMode) {
+        return new CalculationKey(operation.toLowerCase(Locale.ROOT), normalize(a), normalize(b), scale + ":" + roundingMode);
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.calculatorapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of calculation results, evicted by size and by age since the result was
+ * written. Only successful results are stored; failures are recomputed every time.
+ * Bound to a registry, it publishes the standard {@code cache.*} meters tagged with its name.
+ */
+public class ResultCache implements MeterBinder {
+    private static final ResultCache DISABLED = new ResultCache(null, null);
+
+    private final String name;
+    private final Cache<CalculationKey, BigDecimal> cache;
+
+    public ResultCache(String name, long maximumSize, Duration timeToLive) {
+        this(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build());
+    }
+
+    private ResultCache(String name, Cache<CalculationKey, BigDecimal> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    /** A cache that stores nothing, so every lookup misses and every calculation runs. */
+    public static ResultCache disabled() {
+        return DISABLED;
+    }
+
+    public boolean enabled() {
+        return cache != null;
+    }
+
+    public BigDecimal get(CalculationKey key) {
+        return cache != null ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(CalculationKey key, BigDecimal result) {
+        if (cache != null && result != null) {
+            cache.put(key, result);
+        }
+    }
+
+    /**
+     * Returns the cached result for {@code key}, running {@code calculation} on a miss.
+     * Exceptions thrown by the calculation propagate and leave nothing cached.
+     */
+    public BigDecimal get(CalculationKey key, Supplier<BigDecimal> calculation) {
+        return cache != null ? cache.get(key, k -> calculation.get()) : calculation.get();
+    }
+
+    public long size() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, name);
+        }
+    }
+
+    // eviction runs in the background; tests settle it before looking at the size
+    void cleanUp() {
+        if (cache != null) {
+            cache.cleanUp();
+        }
+    }
+}
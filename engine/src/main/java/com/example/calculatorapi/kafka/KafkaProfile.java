@@ -0,0 +1,70 @@
+package com.example.calculatorapi.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Map;
+
+/**
+ * Named sets of Kafka client settings layered under the bootstrap servers and
+ * (de)serializers each module configures. Set with {@code kafka.producer.profile} and
+ * {@code kafka.consumer.profile}; {@code DEFAULT} leaves the client defaults alone.
+ */
+public enum KafkaProfile {
+    DEFAULT(Map.of(), Map.of()),
+
+    /**
+     * Sends every record as soon as it is handed over and waits for the partition leader
+     * only; fetches return as soon as a single record is available.
+     */
+    LOW_LATENCY(
+        Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 0,
+            ProducerConfig.BATCH_SIZE_CONFIG, 16_384,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "none",
+            ProducerConfig.ACKS_CONFIG, "1",
+            ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false
+        ),
+        Map.of(
+            ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1,
+            ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 10
+        )
+    ),
+
+    /**
+     * Lingers to fill large compressed batches and waits for all in-sync replicas with
+     * idempotence on; fetches wait for a fuller response.
+     */
+    HIGH_THROUGHPUT(
+        Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 20,
+            ProducerConfig.BATCH_SIZE_CONFIG, 262_144,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4",
+            ProducerConfig.ACKS_CONFIG, "all",
+            ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+            ProducerConfig.BUFFER_MEMORY_CONFIG, 67_108_864L
+        ),
+        Map.of(
+            ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 65_536,
+            ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 100,
+            ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 4_194_304,
+            ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000
+        )
+    );
+
+    private final Map<String, Object> producerProps;
+    private final Map<String, Object> consumerProps;
+
+    KafkaProfile(Map<String, Object> producerProps, Map<String, Object> consumerProps) {
+        this.producerProps = producerProps;
+        this.consumerProps = consumerProps;
+    }
+
+    public Map<String, Object> producerProps() {
+        return producerProps;
+    }
+
+    public Map<String, Object> consumerProps() {
+        return consumerProps;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.calculatorapi.logging;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.List;
+
+/**
+ * Prints the correlation id of an event: its {@value LogSampler#CORRELATION_ID} key-value
+ * pair when it has one, otherwise the MDC entry of the same name.
+ */
+public class CorrelationIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+        if (keyValuePairs != null) {
+            for (KeyValuePair pair : keyValuePairs) {
+                if (LogSampler.CORRELATION_ID.equals(pair.key)) {
+                    return String.valueOf(pair.value);
+                }
+            }
+        }
+        String fromMdc = event.getMDCPropertyMap().get(LogSampler.CORRELATION_ID);
+        return fromMdc != null ? fromMdc : "";
+    }
+}
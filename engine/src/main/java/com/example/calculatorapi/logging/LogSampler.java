@@ -0,0 +1,29 @@
+package com.example.calculatorapi.logging;
+
+/**
+ * Decides which requests get their per-request log lines.
+ *
+ * <p>The decision is a function of the correlation id, so every service keeps or drops
+ * the lines of the same requests and a sampled request can be followed end to end.
+ * Per-request lines carry the id as the {@value #CORRELATION_ID} key-value pair of the
+ * event instead of the MDC, which {@link CorrelationIdConverter} prints either way.
+ */
+public class LogSampler {
+    public static final String CORRELATION_ID = "correlationId";
+
+    private final int sampleEvery;
+
+    /**
+     * @param sampleRate share of requests to log, from 0 (none) to 1 (all)
+     */
+    public LogSampler(double sampleRate) {
+        this.sampleEvery = sampleRate <= 0 ? 0 : (int) Math.max(1, Math.round(1 / Math.min(sampleRate, 1)));
+    }
+
+    public boolean sampled(String correlationId) {
+        if (sampleEvery <= 1) {
+            return sampleEvery == 1;
+        }
+        return correlationId != null && (correlationId.hashCode() & Integer.MAX_VALUE) % sampleEvery == 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.MultiplicationOperation;
+import com.example.calculatorapi.service.operations.SubtractionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The calculation engine's beans: the operations, configured from the
+ * {@code calculator.*} properties, their factory, the compute metrics and the
+ * {@link CalculationProcessor}. The classes carry no stereotype, so a service gets them only
+ * by importing this class; the importing context supplies the {@code ResultCache}.
+ */
+@Import({
+    SumOperation.class,
+    SubtractionOperation.class,
+    MultiplicationOperation.class,
+    DivisionOperation.class,
+    CalculatorOperationFactory.class,
+    CalculatorMetrics.class,
+    CalculationProcessor.class
+})
+public class CalculationEngineConfig {
+}
@@ -0,0 +1,57 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static com.example.calculatorapi.logging.LogSampler.CORRELATION_ID;
+
+/**
+ * Turns a {@link CalculationRequest} into its {@link CalculationResponse}: resolves the
+ * operation, answers from the {@link ResultCache} when it can and maps failures to error
+ * responses. Knows nothing about Kafka, so the REST module's in-process transport calls it
+ * directly.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CalculationProcessor {
+    private final CalculatorOperationFactory operationFactory;
+    private final ResultCache resultCache;
+    private final CalculatorMetrics metrics;
+
+    public CalculationResponse calculate(CalculationRequest request) {
+        return respond(request.correlationId(), () -> {
+            CalculatorOperation operation = operationFactory.getOperation(request.operation());
+            return resultCache.get(operation.cacheKey(request.a(), request.b()), () -> {
+                long start = System.nanoTime();
+                BigDecimal result = operation.calculate(request.a(), request.b());
+                metrics.computed(operation.getOperationType(), System.nanoTime() - start);
+                return result;
+            });
+        });
+    }
+
+    public CalculationResponse respond(String correlationId, Supplier<BigDecimal> calculation) {
+        try {
+            return new CalculationResponse(correlationId, calculation.get(), null);
+
+        } catch (ArithmeticException e) {
+            metrics.arithmeticError();
+            log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Arithmetic error in calculation: {}", e.getMessage());
+            return new CalculationResponse(correlationId, null, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.invalidRequest();
+            log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Invalid operation: {}", e.getMessage());
+            return new CalculationResponse(correlationId, null, e.getMessage());
+        } catch (Exception e) {
+            metrics.internalError();
+            log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Unexpected error in calculation: {}", e.getMessage());
+            return new CalculationResponse(correlationId, null, "Internal server error");
+        }
+    }
+}
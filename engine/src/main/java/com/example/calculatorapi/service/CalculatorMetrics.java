@@ -0,0 +1,102 @@
+package com.example.calculatorapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the calculation path. Every meter is registered up front, so recording an
+ * observation is a map lookup and an update of the meter, with nothing allocated.
+ * {@code calculator.startup.first-message} is the time from process start to the first
+ * request handled, which is how long a freshly scaled-out instance is of no use.
+ */
+@Slf4j
+public class CalculatorMetrics {
+    private final Map<String, Timer> computeTimers = new HashMap<>();
+    private final Counter arithmeticErrors;
+    private final Counter invalidRequests;
+    private final Counter internalErrors;
+    private final Counter expired;
+    private final long startMillis;
+    private volatile double firstMessageMillis = Double.NaN;
+
+    @Autowired
+    public CalculatorMetrics(MeterRegistry registry, List<CalculatorOperation> operations) {
+        this(registry, operations, ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    CalculatorMetrics(MeterRegistry registry, List<CalculatorOperation> operations, long startMillis) {
+        this.startMillis = startMillis;
+        for (CalculatorOperation operation : operations) {
+            computeTimers.put(operation.getOperationType(), Timer.builder("calculator.compute")
+                .description("Time spent computing a calculation, cache hits excluded")
+                .tag("operation", operation.getOperationType())
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+        this.arithmeticErrors = errors(registry, "arithmetic");
+        this.invalidRequests = errors(registry, "invalid");
+        this.internalErrors = errors(registry, "internal");
+        this.expired = Counter.builder("calculator.expired")
+            .description("Requests skipped because their deadline had passed")
+            .register(registry);
+        TimeGauge.builder("calculator.startup.first-message", this, TimeUnit.MILLISECONDS, m -> m.firstMessageMillis)
+            .description("Time from process start to the first request handled")
+            .register(registry);
+    }
+
+    /**
+     * Called for every request, or batch of requests, before it is handled.
+     */
+    public void received() {
+        if (Double.isNaN(firstMessageMillis)) {
+            firstReceived();
+        }
+    }
+
+    private synchronized void firstReceived() {
+        if (Double.isNaN(firstMessageMillis)) {
+            firstMessageMillis = System.currentTimeMillis() - startMillis;
+            log.info("First request received {} ms after process start", (long) firstMessageMillis);
+        }
+    }
+
+    public void computed(String operationType, long nanos) {
+        Timer timer = computeTimers.get(operationType);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void arithmeticError() {
+        arithmeticErrors.increment();
+    }
+
+    public void invalidRequest() {
+        invalidRequests.increment();
+    }
+
+    public void internalError() {
+        internalErrors.increment();
+    }
+
+    public void expired() {
+        expired.increment();
+    }
+
+    private static Counter errors(MeterRegistry registry, String type) {
+        return Counter.builder("calculator.errors")
+            .description("Calculations answered with an error")
+            .tag("type", type)
+            .register(registry);
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.calculatorapi.service;
 
+import com.example.calculatorapi.cache.CalculationKey;
+
 import java.math.BigDecimal;
 
 public interface CalculatorOperation {
 
     BigDecimal calculate(BigDecimal a, BigDecimal b);
     String getOperationType();
-} 
\ No newline at end of file
+
+    default CalculationKey cacheKey(BigDecimal a, BigDecimal b) {
+        return CalculationKey.exact(getOperationType(), a, b);
+    }
+}
@@ -1,13 +1,10 @@
 package com.example.calculatorapi.service;
 
-import org.springframework.stereotype.Component;
-
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-@Component
 public class CalculatorOperationFactory {
     private final Map<String, CalculatorOperation> operations;
 
@@ -1,13 +1,12 @@
 package com.example.calculatorapi.service.operations;
 
+import com.example.calculatorapi.cache.CalculationKey;
 import com.example.calculatorapi.service.CalculatorOperation;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-@Service
 public class DivisionOperation implements CalculatorOperation {
     private final int scale;
     private final RoundingMode roundingMode;
@@ -24,11 +23,17 @@ public class DivisionOperation implements CalculatorOperation {
         if (b.compareTo(BigDecimal.ZERO) == 0) {
             throw new ArithmeticException("Division by zero");
         }
-        return a.divide(b, scale, roundingMode);
+        BigDecimal result = LongDecimalMath.divide(a, b, scale, roundingMode);
+        return result != null ? result : a.divide(b, scale, roundingMode);
     }
 
     @Override
     public String getOperationType() {
         return "division";
     }
+
+    @Override
+    public CalculationKey cacheKey(BigDecimal a, BigDecimal b) {
+        return CalculationKey.rounded(getOperationType(), a, b, scale, roundingMode);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.example.calculatorapi.service.operations;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fast path for operands whose unscaled value fits in a {@code long}.
+ * <p>
+ * Every method returns exactly what the equivalent {@link BigDecimal} call returns (same
+ * unscaled value and scale), or {@code null} when the operands are too large, a step would
+ * overflow, or the rounding has to throw; callers then fall back to {@link BigDecimal}.
+ */
+final class LongDecimalMath {
+
+    private static final int MAX_PRECISION = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private LongDecimalMath() {
+    }
+
+    static BigDecimal add(BigDecimal a, BigDecimal b) {
+        return addScaled(a, b, false);
+    }
+
+    static BigDecimal subtract(BigDecimal a, BigDecimal b) {
+        return addScaled(a, b, true);
+    }
+
+    // a.multiply(b).setScale(scale, roundingMode)
+    static BigDecimal multiply(BigDecimal a, BigDecimal b, int scale, RoundingMode roundingMode) {
+        if (!fits(a) || !fits(b)) {
+            return null;
+        }
+        try {
+            long product = Math.multiplyExact(unscaled(a), unscaled(b));
+            long productScale = (long) a.scale() + b.scale();
+            long unscaledResult = productScale <= scale
+                ? Math.multiplyExact(product, powerOfTen(scale - productScale))
+                : divideAndRound(product, powerOfTen(productScale - scale), roundingMode);
+            return BigDecimal.valueOf(unscaledResult, scale);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    // a.divide(b, scale, roundingMode), with b != 0
+    static BigDecimal divide(BigDecimal a, BigDecimal b, int scale, RoundingMode roundingMode) {
+        if (!fits(a) || !fits(b)) {
+            return null;
+        }
+        try {
+            // a / b = (ua / ub) * 10^(sb - sa), so the result's unscaled value is ua * 10^e / ub
+            long exponent = (long) scale + b.scale() - a.scale();
+            long dividend = unscaled(a);
+            long divisor = unscaled(b);
+            if (exponent >= 0) {
+                dividend = Math.multiplyExact(dividend, powerOfTen(exponent));
+            } else {
+                divisor = Math.multiplyExact(divisor, powerOfTen(-exponent));
+            }
+            return BigDecimal.valueOf(divideAndRound(dividend, divisor, roundingMode), scale);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal addScaled(BigDecimal a, BigDecimal b, boolean negateB) {
+        if (!fits(a) || !fits(b)) {
+            return null;
+        }
+        try {
+            int scale = Math.max(a.scale(), b.scale());
+            long x = Math.multiplyExact(unscaled(a), powerOfTen((long) scale - a.scale()));
+            long y = Math.multiplyExact(unscaled(b), powerOfTen((long) scale - b.scale()));
+            return BigDecimal.valueOf(negateB ? Math.subtractExact(x, y) : Math.addExact(x, y), scale);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    static long divideAndRound(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend ^ divisor) < 0 ? -1 : 1;
+        boolean increment = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long r = Math.abs(remainder);
+                int half = Long.compare(r, Math.abs(divisor) - r);
+                yield half > 0 || half == 0 && (roundingMode == RoundingMode.HALF_UP
+                    || roundingMode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + sign : quotient;
+    }
+
+    private static boolean fits(BigDecimal value) {
+        return value.precision() <= MAX_PRECISION;
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.scale() == 0 ? value.longValue() : value.scaleByPowerOfTen(value.scale()).longValue();
+    }
+
+    private static long powerOfTen(long exponent) {
+        if (exponent < 0 || exponent >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Exponent out of range: " + exponent);
+        }
+        return POWERS_OF_TEN[(int) exponent];
+    }
+}
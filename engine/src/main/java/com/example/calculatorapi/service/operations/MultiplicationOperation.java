@@ -1,13 +1,12 @@
 package com.example.calculatorapi.service.operations;
 
+import com.example.calculatorapi.cache.CalculationKey;
 import com.example.calculatorapi.service.CalculatorOperation;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-@Service
 public class MultiplicationOperation implements CalculatorOperation {
 
     private final int scale;
@@ -22,11 +21,17 @@ public class MultiplicationOperation implements CalculatorOperation {
 
     @Override
     public BigDecimal calculate(BigDecimal a, BigDecimal b) {
-        return a.multiply(b).setScale(scale, roundingMode);
+        BigDecimal result = LongDecimalMath.multiply(a, b, scale, roundingMode);
+        return result != null ? result : a.multiply(b).setScale(scale, roundingMode);
     }
 
     @Override
     public String getOperationType() {
         return "multiplication";
     }
+
+    @Override
+    public CalculationKey cacheKey(BigDecimal a, BigDecimal b) {
+        return CalculationKey.rounded(getOperationType(), a, b, scale, roundingMode);
+    }
 } 
\ No newline at end of file
@@ -1,15 +1,14 @@
 package com.example.calculatorapi.service.operations;
 
 import com.example.calculatorapi.service.CalculatorOperation;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 
-@Service
 public class SubtractionOperation implements CalculatorOperation {
     @Override
     public BigDecimal calculate(BigDecimal a, BigDecimal b) {
-        return a.subtract(b);
+        BigDecimal result = LongDecimalMath.subtract(a, b);
+        return result != null ? result : a.subtract(b);
     }
 
     @Override
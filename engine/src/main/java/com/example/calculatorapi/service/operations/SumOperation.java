@@ -1,15 +1,14 @@
 package com.example.calculatorapi.service.operations;
 
 import com.example.calculatorapi.service.CalculatorOperation;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 
-@Service
 public class SumOperation implements CalculatorOperation {
     @Override
     public BigDecimal calculate(BigDecimal a, BigDecimal b) {
-        return a.add(b);
+        BigDecimal result = LongDecimalMath.add(a, b);
+        return result != null ? result : a.add(b);
     }
 
     @Override
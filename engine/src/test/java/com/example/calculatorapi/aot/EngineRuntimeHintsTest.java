@@ -0,0 +1,21 @@
+package com.example.calculatorapi.aot;
+
+import com.example.calculatorapi.logging.CorrelationIdConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EngineRuntimeHintsTest {
+
+    @Test
+    void registerHints_letsLogbackCreateTheConverter() {
+        RuntimeHints hints = new RuntimeHints();
+        new EngineRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(CorrelationIdConverter.class)
+            .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+}
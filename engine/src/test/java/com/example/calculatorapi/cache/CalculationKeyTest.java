@@ -0,0 +1,37 @@
+package com.example.calculatorapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculationKeyTest {
+
+    @Test
+    void rounded_comparesOperandsByValue() {
+        var key = CalculationKey.rounded("Division", new BigDecimal("10.00"), new BigDecimal("4"), 10, RoundingMode.HALF_UP);
+        var same = CalculationKey.rounded("division", new BigDecimal("1E+1"), new BigDecimal("4.0"), 10, RoundingMode.HALF_UP);
+
+        assertThat(key).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(CalculationKey.rounded("multiplication", new BigDecimal("0.00"), BigDecimal.ONE, 1, RoundingMode.HALF_UP))
+            .isEqualTo(CalculationKey.rounded("multiplication", BigDecimal.ZERO, BigDecimal.ONE, 1, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void rounded_includesScaleAndRoundingMode() {
+        var key = CalculationKey.rounded("division", BigDecimal.ONE, new BigDecimal("3"), 10, RoundingMode.HALF_UP);
+
+        assertThat(key).isNotEqualTo(CalculationKey.rounded("division", BigDecimal.ONE, new BigDecimal("3"), 2, RoundingMode.HALF_UP));
+        assertThat(key).isNotEqualTo(CalculationKey.rounded("division", BigDecimal.ONE, new BigDecimal("3"), 10, RoundingMode.DOWN));
+    }
+
+    @Test
+    void exact_keepsOperandScale() {
+        var key = CalculationKey.exact("SUM", new BigDecimal("2.0"), new BigDecimal("3"));
+
+        assertThat(key).isEqualTo(CalculationKey.exact("sum", new BigDecimal("2.0"), new BigDecimal("3")));
+        assertThat(key).isNotEqualTo(CalculationKey.exact("sum", new BigDecimal("2"), new BigDecimal("3")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.calculatorapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultCacheTest {
+
+    private final CalculationKey key = CalculationKey.exact("sum", BigDecimal.ONE, BigDecimal.TEN);
+
+    @Test
+    void get_calculatesOnceAndRecordsHitsAndMisses() {
+        var cache = new ResultCache("test", 100, Duration.ofMinutes(1));
+        var calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(key, () -> {
+                calls.incrementAndGet();
+                return new BigDecimal("11");
+            })).isEqualByComparingTo("11");
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void get_doesNotCacheFailures() {
+        var cache = new ResultCache("test", 100, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> cache.get(key, () -> { throw new ArithmeticException("Division by zero"); }))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessage("Division by zero");
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void expiresEntriesAfterTimeToLive() throws InterruptedException {
+        var cache = new ResultCache("test", 100, Duration.ofMillis(50));
+        cache.put(key, BigDecimal.ONE);
+
+        Thread.sleep(100);
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        var cache = new ResultCache("test", 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.put(CalculationKey.exact("sum", BigDecimal.valueOf(i), BigDecimal.ONE), BigDecimal.valueOf(i + 1));
+        }
+
+        cache.cleanUp();
+
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(cache.stats().evictionCount()).isEqualTo(990);
+    }
+
+    @Test
+    void disabled_alwaysCalculates() {
+        var cache = ResultCache.disabled();
+        var calls = new AtomicInteger();
+
+        cache.put(key, BigDecimal.ONE);
+        cache.get(key, () -> BigDecimal.valueOf(calls.incrementAndGet()));
+        cache.get(key, () -> BigDecimal.valueOf(calls.incrementAndGet()));
+
+        assertThat(cache.enabled()).isFalse();
+        assertThat(cache.get(key)).isNull();
+        assertThat(calls).hasValue(2);
+    }
+}
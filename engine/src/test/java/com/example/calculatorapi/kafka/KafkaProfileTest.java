@@ -0,0 +1,56 @@
+package com.example.calculatorapi.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaProfileTest {
+
+    @ParameterizedTest
+    @EnumSource(KafkaProfile.class)
+    void producerProps_AreAValidProducerConfig(KafkaProfile profile) {
+        Map<String, Object> props = new HashMap<>(profile.producerProps());
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+
+        ProducerConfig config = new ProducerConfig(props);
+
+        profile.producerProps().keySet().forEach(key -> assertThat(config.originals()).containsKey(key));
+    }
+
+    @ParameterizedTest
+    @EnumSource(KafkaProfile.class)
+    void consumerProps_AreAValidConsumerConfig(KafkaProfile profile) {
+        Map<String, Object> props = new HashMap<>(profile.consumerProps());
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        new ConsumerConfig(props);
+    }
+
+    @Test
+    void defaultProfile_LeavesClientDefaults() {
+        assertThat(KafkaProfile.DEFAULT.producerProps()).isEmpty();
+        assertThat(KafkaProfile.DEFAULT.consumerProps()).isEmpty();
+    }
+
+    @Test
+    void profiles_TradeLatencyForBatching() {
+        assertThat(KafkaProfile.LOW_LATENCY.producerProps()).containsEntry(ProducerConfig.LINGER_MS_CONFIG, 0);
+        assertThat((int) KafkaProfile.HIGH_THROUGHPUT.producerProps().get(ProducerConfig.LINGER_MS_CONFIG)).isPositive();
+        assertThat(KafkaProfile.HIGH_THROUGHPUT.producerProps())
+            .containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+            .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.calculatorapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdConverterTest {
+
+    private final CorrelationIdConverter converter = new CorrelationIdConverter();
+    private final LoggerContext context = new LoggerContext();
+
+    private LoggingEvent event(Map<String, String> mdc) {
+        var event = new LoggingEvent("test", context.getLogger("test"), Level.INFO, "message", null, null);
+        event.setMDCPropertyMap(mdc);
+        return event;
+    }
+
+    @Test
+    void convert_prefersKeyValuePair() {
+        var event = event(Map.of(LogSampler.CORRELATION_ID, "from-mdc"));
+        event.addKeyValuePair(new KeyValuePair(LogSampler.CORRELATION_ID, "from-event"));
+
+        assertThat(converter.convert(event)).isEqualTo("from-event");
+    }
+
+    @Test
+    void convert_fallsBackToMdc() {
+        var event = event(Map.of(LogSampler.CORRELATION_ID, "from-mdc"));
+
+        assertThat(converter.convert(event)).isEqualTo("from-mdc");
+        assertThat(converter.convert(event(Map.of()))).isEmpty();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.calculatorapi.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+
+    @Test
+    void sampled_fullRateLogsEveryRequestAndZeroNone() {
+        String id = UUID.randomUUID().toString();
+
+        assertThat(new LogSampler(1).sampled(id)).isTrue();
+        assertThat(new LogSampler(0).sampled(id)).isFalse();
+    }
+
+    @Test
+    void sampled_partialRateKeepsAboutThatShareOfRequests() {
+        var sampler = new LogSampler(0.1);
+
+        long sampled = IntStream.range(0, 100_000)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .filter(sampler::sampled)
+            .count();
+
+        assertThat(sampled).isBetween(9_000L, 11_000L);
+    }
+
+    @Test
+    void sampled_sameIdGivesSameDecisionEverywhere() {
+        String id = UUID.randomUUID().toString();
+
+        assertThat(new LogSampler(0.01).sampled(id)).isEqualTo(new LogSampler(0.01).sampled(new String(id)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculationProcessorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResultCache resultCache;
+    private CalculationProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        List<CalculatorOperation> operations = List.of(new SumOperation(), new DivisionOperation(10, RoundingMode.HALF_UP));
+        resultCache = new ResultCache("test", 100, Duration.ofMinutes(1));
+        processor = new CalculationProcessor(new CalculatorOperationFactory(operations), resultCache,
+            new CalculatorMetrics(meterRegistry, operations));
+    }
+
+    @Test
+    void calculate_validRequest_returnsResult() {
+        CalculationResponse response = processor.calculate(request("sum", "10.5", "2.5"));
+
+        assertThat(response).isEqualTo(new CalculationResponse("id-1", new BigDecimal("13.0"), null));
+    }
+
+    @Test
+    void calculate_repeatedRequest_isServedFromResultCache() {
+        processor.calculate(request("division", "10", "4"));
+        CalculationResponse response = processor.calculate(request("division", "10", "4"));
+
+        assertThat(response.result()).isEqualByComparingTo("2.5");
+        assertThat(resultCache.stats().hitCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("calculator.compute").tag("operation", "division").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void calculate_divisionByZero_returnsArithmeticError() {
+        CalculationResponse response = processor.calculate(request("division", "10", "0"));
+
+        assertThat(response.result()).isNull();
+        assertThat(response.errorMessage()).isEqualTo("Division by zero");
+        assertThat(meterRegistry.get("calculator.errors").tag("type", "arithmetic").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void calculate_unsupportedOperation_returnsInvalidRequestError() {
+        CalculationResponse response = processor.calculate(request("modulo", "10", "3"));
+
+        assertThat(response.errorMessage()).isEqualTo("Unsupported operation: modulo");
+        assertThat(meterRegistry.get("calculator.errors").tag("type", "invalid").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void respond_unexpectedException_hidesItsMessage() {
+        CalculationResponse response = processor.respond("id-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(response.errorMessage()).isEqualTo("Internal server error");
+        assertThat(meterRegistry.get("calculator.errors").tag("type", "internal").counter().count()).isEqualTo(1);
+    }
+
+    private static CalculationRequest request(String operation, String a, String b) {
+        return new CalculationRequest(operation, new BigDecimal(a), new BigDecimal(b), "id-1");
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.calculatorapi.service;
+
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculatorMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CalculatorMetrics metrics = new CalculatorMetrics(registry,
+        List.of(new SumOperation(), new DivisionOperation(10, RoundingMode.HALF_UP)));
+
+    @Test
+    void computed_recordsPerOperationType() {
+        metrics.computed("division", 1_500);
+        metrics.computed("division", 500);
+        metrics.computed("unknown", 500);
+
+        var division = registry.get("calculator.compute").tag("operation", "division").timer();
+        assertThat(division.count()).isEqualTo(2);
+        assertThat(division.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(2_000);
+        assertThat(registry.get("calculator.compute").tag("operation", "sum").timer().count()).isZero();
+    }
+
+    @Test
+    void errors_areCountedByType() {
+        metrics.arithmeticError();
+        metrics.invalidRequest();
+        metrics.invalidRequest();
+
+        assertThat(registry.get("calculator.errors").tag("type", "arithmetic").counter().count()).isEqualTo(1);
+        assertThat(registry.get("calculator.errors").tag("type", "invalid").counter().count()).isEqualTo(2);
+        assertThat(registry.get("calculator.errors").tag("type", "internal").counter().count()).isZero();
+    }
+
+    @Test
+    void received_recordsTheFirstRequestOnly() {
+        var startupRegistry = new SimpleMeterRegistry();
+        var started = new CalculatorMetrics(startupRegistry, List.of(), System.currentTimeMillis() - 5_000);
+        var gauge = startupRegistry.get("calculator.startup.first-message").timeGauge();
+        assertThat(gauge.value(TimeUnit.MILLISECONDS)).isNaN();
+
+        started.received();
+        double first = gauge.value(TimeUnit.MILLISECONDS);
+        started.received();
+
+        assertThat(first).isGreaterThanOrEqualTo(5_000);
+        assertThat(gauge.value(TimeUnit.MILLISECONDS)).isEqualTo(first);
+    }
+}
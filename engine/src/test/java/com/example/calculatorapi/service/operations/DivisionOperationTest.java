@@ -38,4 +38,11 @@ class DivisionOperationTest {
         ).isInstanceOf(ArithmeticException.class)
          .hasMessage("Division by zero");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void cacheKey_dependsOnOperandValuesAndScale() {
+        assertThat(operation.cacheKey(new BigDecimal("1.0"), new BigDecimal("3")))
+            .isEqualTo(operation.cacheKey(BigDecimal.ONE, new BigDecimal("3.00")))
+            .isNotEqualTo(new DivisionOperation(2, RoundingMode.HALF_UP).cacheKey(BigDecimal.ONE, new BigDecimal("3")));
+    }
+}
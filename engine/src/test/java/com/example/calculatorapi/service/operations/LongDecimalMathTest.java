@@ -0,0 +1,112 @@
+package com.example.calculatorapi.service.operations;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongDecimalMathTest {
+
+    private static final int SAMPLES = 20_000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void addAndSubtract_matchBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal a = randomDecimal();
+            BigDecimal b = randomDecimal();
+
+            assertSameOrFallback(LongDecimalMath.add(a, b), a.add(b));
+            assertSameOrFallback(LongDecimalMath.subtract(a, b), a.subtract(b));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, names = "UNNECESSARY", mode = EnumSource.Mode.EXCLUDE)
+    void multiply_matchesBigDecimal(RoundingMode roundingMode) {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal a = randomDecimal();
+            BigDecimal b = randomDecimal();
+            int scale = random.nextInt(12);
+
+            assertSameOrFallback(LongDecimalMath.multiply(a, b, scale, roundingMode),
+                a.multiply(b).setScale(scale, roundingMode));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, names = "UNNECESSARY", mode = EnumSource.Mode.EXCLUDE)
+    void divide_matchesBigDecimal(RoundingMode roundingMode) {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal a = randomDecimal();
+            BigDecimal b = randomDecimal();
+            if (b.signum() == 0) {
+                continue;
+            }
+            int scale = random.nextInt(12);
+
+            assertSameOrFallback(LongDecimalMath.divide(a, b, scale, roundingMode),
+                a.divide(b, scale, roundingMode));
+        }
+    }
+
+    @Test
+    void typicalOperands_takeTheFastPath() {
+        BigDecimal a = new BigDecimal("10.50");
+        BigDecimal b = new BigDecimal("3");
+
+        assertThat(LongDecimalMath.add(a, b)).isEqualTo(new BigDecimal("13.50"));
+        assertThat(LongDecimalMath.subtract(a, b)).isEqualTo(new BigDecimal("7.50"));
+        assertThat(LongDecimalMath.multiply(a, b, 1, RoundingMode.HALF_UP)).isEqualTo(new BigDecimal("31.5"));
+        assertThat(LongDecimalMath.divide(a, b, 10, RoundingMode.HALF_UP)).isEqualTo(new BigDecimal("3.5000000000"));
+    }
+
+    @Test
+    void overflow_fallsBack() {
+        BigDecimal large = new BigDecimal("999999999999999999");
+
+        assertThat(LongDecimalMath.multiply(large, large, 0, RoundingMode.HALF_UP)).isNull();
+        assertThat(LongDecimalMath.add(large, new BigDecimal("1E-5"))).isNull();
+        assertThat(LongDecimalMath.add(new BigDecimal("12345678901234567890"), BigDecimal.ONE)).isNull();
+    }
+
+    @Test
+    void inexactUnnecessaryRounding_fallsBack() {
+        assertThat(LongDecimalMath.divide(BigDecimal.ONE, new BigDecimal("3"), 2, RoundingMode.UNNECESSARY)).isNull();
+        assertThat(LongDecimalMath.divide(BigDecimal.ONE, new BigDecimal("4"), 2, RoundingMode.UNNECESSARY))
+            .isEqualTo(new BigDecimal("0.25"));
+    }
+
+    @Test
+    void divideAndRound_halfEvenTies() {
+        assertThat(LongDecimalMath.divideAndRound(25, 10, RoundingMode.HALF_EVEN)).isEqualTo(2);
+        assertThat(LongDecimalMath.divideAndRound(35, 10, RoundingMode.HALF_EVEN)).isEqualTo(4);
+        assertThat(LongDecimalMath.divideAndRound(-25, 10, RoundingMode.HALF_EVEN)).isEqualTo(-2);
+        assertThat(LongDecimalMath.divideAndRound(-25, 10, RoundingMode.HALF_UP)).isEqualTo(-3);
+        assertThat(LongDecimalMath.divideAndRound(-25, 10, RoundingMode.HALF_DOWN)).isEqualTo(-2);
+    }
+
+    private void assertSameOrFallback(BigDecimal fast, BigDecimal expected) {
+        if (fast != null) {
+            assertThat(fast).isEqualTo(expected);
+            assertThat(fast.scale()).isEqualTo(expected.scale());
+        }
+    }
+
+    // mixes small amounts, large unscaled values near the long limit, and negative scales
+    private BigDecimal randomDecimal() {
+        int digits = random.nextInt(4) == 0 ? 1 + random.nextInt(20) : 1 + random.nextInt(6);
+        BigInteger unscaled = new BigInteger(digits * 4, random).mod(BigInteger.TEN.pow(digits));
+        if (random.nextBoolean()) {
+            unscaled = unscaled.negate();
+        }
+        return new BigDecimal(unscaled, random.nextInt(10) - 2);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.control.ConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "rest.limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Value("${rest.limit.initial:1000}")
+    private int initialLimit;
+
+    @Value("${rest.limit.min:20}")
+    private int minLimit;
+
+    @Value("${rest.limit.max:${rest.request.max-in-flight:100000}}")
+    private int maxLimit;
+
+    @Value("${rest.limit.latency-threshold-ms:500}")
+    private long latencyThresholdMs;
+
+    @Value("${rest.limit.backoff:0.9}")
+    private double backoff;
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMs, backoff);
+    }
+}
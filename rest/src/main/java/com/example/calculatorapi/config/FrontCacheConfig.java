@@ -0,0 +1,44 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.control.FrontCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+
+@Configuration
+public class FrontCacheConfig {
+
+    @Value("${rest.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${rest.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${rest.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${calculator.division.scale:10}")
+    private int divisionScale;
+
+    @Value("${calculator.division.rounding-mode:HALF_UP}")
+    private RoundingMode divisionRoundingMode;
+
+    @Value("${calculator.multiplication.scale:1}")
+    private int multiplicationScale;
+
+    @Value("${calculator.multiplication.rounding-mode:HALF_UP}")
+    private RoundingMode multiplicationRoundingMode;
+
+    @Bean
+    public FrontCache frontCache() {
+        if (!enabled) {
+            return FrontCache.disabled();
+        }
+        return new FrontCache(new ResultCache("front", maxSize, Duration.ofMillis(ttlMs)),
+            divisionScale, divisionRoundingMode, multiplicationScale, multiplicationRoundingMode);
+    }
+}
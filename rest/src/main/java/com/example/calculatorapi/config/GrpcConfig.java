@@ -0,0 +1,102 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.control.CalculatorController;
+import com.example.calculatorapi.control.CalculatorGrpcService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "rest.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcConfig {
+
+    @Value("${rest.grpc.port:9090}")
+    private int port;
+
+    @Value("${rest.stream.max-in-flight:256}")
+    private int streamWindow;
+
+    @Value("${rest.request.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public Server grpcServer(CalculatorController controller) {
+        ServerBuilder<?> builder = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+            .addService(new CalculatorGrpcService(controller, streamWindow).definition());
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public SmartLifecycle grpcServerLifecycle(Server grpcServer) {
+        return new GrpcServerLifecycle(grpcServer, timeoutMs);
+    }
+
+    /**
+     * Starts the server with the web server, once the reply listeners are running, and
+     * lets calls in flight finish for up to one request timeout on shutdown.
+     */
+    private static final class GrpcServerLifecycle implements SmartLifecycle {
+        private final Server server;
+        private final long timeoutMs;
+        private volatile boolean running;
+
+        GrpcServerLifecycle(Server server, long timeoutMs) {
+            this.server = server;
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public void start() {
+            try {
+                server.start();
+                running = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start the gRPC server", e);
+            }
+        }
+
+        @Override
+        public void stop() {
+            server.shutdown();
+            try {
+                if (!server.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                server.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                running = false;
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            // the phase Boot starts and stops the embedded web server in
+            return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+        }
+    }
+}
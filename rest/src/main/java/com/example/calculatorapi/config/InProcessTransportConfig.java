@@ -0,0 +1,50 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.control.CalculationTransport;
+import com.example.calculatorapi.control.ConcurrencyLimiter;
+import com.example.calculatorapi.control.InProcessCalculationTransport;
+import com.example.calculatorapi.control.RequestMetrics;
+import com.example.calculatorapi.service.CalculationEngineConfig;
+import com.example.calculatorapi.service.CalculationProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The calculation engine the calculator service runs, and a result cache, wired into this
+ * context so {@code /calculate} is answered without Kafka. The operations read the same
+ * {@code calculator.*} properties as in the calculator service.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rest.transport", havingValue = "in-process")
+@Import(CalculationEngineConfig.class)
+public class InProcessTransportConfig {
+
+    @Value("${calculator.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${calculator.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${calculator.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    @Bean
+    public ResultCache resultCache() {
+        return cacheEnabled ? new ResultCache("result", cacheMaxSize, Duration.ofMillis(cacheTtlMs)) : ResultCache.disabled();
+    }
+
+    @Bean
+    public CalculationTransport calculationTransport(CalculationProcessor calculationProcessor,
+                                                     RequestMetrics requestMetrics,
+                                                     Optional<ConcurrencyLimiter> concurrencyLimiter) {
+        return TransportConfig.limited(new InProcessCalculationTransport(calculationProcessor, requestMetrics),
+            concurrencyLimiter);
+    }
+}
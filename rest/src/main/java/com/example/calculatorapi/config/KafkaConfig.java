@@ -1,20 +1,36 @@
 package com.example.calculatorapi.config;
 
+import com.example.calculatorapi.codec.BinaryCodec;
+import com.example.calculatorapi.codec.WireFormat;
+import com.example.calculatorapi.codec.WireFormatDeserializer;
+import com.example.calculatorapi.codec.WireFormatSerializer;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.kafka.KafkaProfile;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @EnableKafka
@@ -27,41 +43,154 @@ public class KafkaConfig {
     @Value("${kafka.group.rest}")
     private String groupId;
 
+    @Value("${kafka.topic.responses}")
+    private String responsesTopic;
+
+    @Value("${kafka.topic.bulk-responses:calc-bulk-responses}")
+    private String bulkResponsesTopic;
+
+    @Value("${rest.instance-id:${HOSTNAME:#{T(java.util.UUID).randomUUID().toString()}}}")
+    private String instanceId;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${kafka.wire-format:JSON}")
+    private WireFormat wireFormat;
+
+    @Value("${kafka.producer.profile:DEFAULT}")
+    private KafkaProfile producerProfile = KafkaProfile.DEFAULT;
+
+    @Value("${kafka.consumer.profile:DEFAULT}")
+    private KafkaProfile consumerProfile = KafkaProfile.DEFAULT;
+
+    @Value("${kafka.topic.partitions:1}")
+    private int partitions;
+
+    // more listeners than partitions would sit idle
+    @Value("${rest.listener.concurrency:${kafka.topic.partitions:1}}")
+    private int concurrency;
+
+    // each replica consumes its own reply topic, so a reply always reaches the pending future
+    @Bean
+    public NewTopic replyTopic() {
+        return TopicBuilder.name(responsesTopic + "." + instanceId).partitions(partitions).build();
+    }
+
+    @Bean
+    public NewTopic bulkReplyTopic() {
+        return TopicBuilder.name(bulkResponsesTopic + "." + instanceId).partitions(partitions).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rest.reply-topics.delete-on-shutdown", havingValue = "true", matchIfMissing = true)
+    public SmartLifecycle replyTopicCleanup(KafkaAdmin kafkaAdmin) {
+        return new ReplyTopicCleanup(() -> Admin.create(kafkaAdmin.getConfigurationProperties()),
+            List.of(replyTopic().name(), bulkReplyTopic().name()), groupId + "." + instanceId,
+            kafkaAdmin.getOperationTimeout() * 1000L);
+    }
+
     @Bean
     public ConsumerFactory<String, CalculationResponse> consumerFactory() {
         JsonDeserializer<CalculationResponse> deserializer =
             new JsonDeserializer<>(CalculationResponse.class);
         deserializer.addTrustedPackages("*");
 
-        Map<String, Object> props = Map.of(
-            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-            ConsumerConfig.GROUP_ID_CONFIG, groupId,
-            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
-            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class
-        );
-
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(),
+            new WireFormatDeserializer<>(deserializer, BinaryCodec::decodeResponse));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, CalculationResponse> restKafkaListenerContainerFactory() {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, CalculationResponse>();
         factory.setConsumerFactory(consumerFactory());
+        configureContainer(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, BulkCalculationResponse> bulkConsumerFactory() {
+        JsonDeserializer<BulkCalculationResponse> deserializer =
+            new JsonDeserializer<>(BulkCalculationResponse.class);
+        deserializer.addTrustedPackages("*");
+
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BulkCalculationResponse> restBulkKafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, BulkCalculationResponse>();
+        factory.setConsumerFactory(bulkConsumerFactory());
+        configureContainer(factory);
         return factory;
     }
 
     @Bean
     public ProducerFactory<String, CalculationRequest> producerFactory() {
-        Map<String, Object> props = Map.of(
-            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
-            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class
-        );
-        return new DefaultKafkaProducerFactory<>(props);
+        return new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(),
+            new WireFormatSerializer<>(new JsonSerializer<>(), BinaryCodec::encode, wireFormat));
     }
 
     @Bean
     public KafkaTemplate<String, CalculationRequest> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-} 
\ No newline at end of file
+
+    // expressions and bulk requests have no binary encoding, so they always travel as JSON
+    @Bean
+    public ProducerFactory<String, ExpressionRequest> expressionProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(), new JsonSerializer<>());
+    }
+
+    @Bean
+    public KafkaTemplate<String, ExpressionRequest> expressionKafkaTemplate() {
+        return new KafkaTemplate<>(expressionProducerFactory());
+    }
+
+    @Bean
+    public ProducerFactory<String, BulkCalculationRequest> bulkProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(), new JsonSerializer<>());
+    }
+
+    @Bean
+    public KafkaTemplate<String, BulkCalculationRequest> bulkKafkaTemplate() {
+        return new KafkaTemplate<>(bulkProducerFactory());
+    }
+
+    // profile settings go in first, so they never replace the servers, group or deserializers
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>(consumerProfile.consumerProps());
+        props.putAll(Map.of(
+            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+            ConsumerConfig.GROUP_ID_CONFIG, groupId + "." + instanceId,
+            // replies from a calculator in exactly-once mode count only once their transaction commits
+            ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed",
+            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class
+        ));
+        return props;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>(producerProfile.producerProps());
+        props.putAll(Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class
+        ));
+        return props;
+    }
+
+    private void configureContainer(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        factory.setConcurrency(Math.max(1, concurrency));
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(virtualThreadExecutor());
+        }
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("rest-listener-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
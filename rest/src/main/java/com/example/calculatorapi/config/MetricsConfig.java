@@ -0,0 +1,27 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.control.RequestMetrics;
+import com.example.calculatorapi.control.SingleFlight;
+import com.example.calculatorapi.dto.CalculationResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public RequestMetrics requestMetrics(MeterRegistry meterRegistry) {
+        return new RequestMetrics(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder calculationFlightsMetrics(SingleFlight<CalculationKey, CalculationResponse> calculationFlights) {
+        return registry -> FunctionCounter.builder("rest.requests.coalesced", calculationFlights, SingleFlight::joined)
+            .description("Requests that joined an identical request already in flight")
+            .register(registry);
+    }
+}
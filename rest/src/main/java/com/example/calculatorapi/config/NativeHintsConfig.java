@@ -0,0 +1,39 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.aot.ContractRuntimeHints;
+import com.example.calculatorapi.aot.EngineRuntimeHints;
+import com.example.calculatorapi.control.CalculatorController;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import com.example.calculatorapi.dto.RestStreamCalculationResponse;
+import com.example.calculatorapi.grpc.CalculateRequest;
+import com.example.calculatorapi.grpc.CalculateResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Runtime hints for the {@code aot} and {@code native} build profiles. Besides the contract
+ * DTOs, the {@code @KafkaListener} reply methods are invoked reflectively, the streaming
+ * endpoint binds its lines with its own {@code ObjectMapper} where Spring MVC does not see
+ * the types, and protobuf looks up the accessors of the gRPC messages by name.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints({ContractRuntimeHints.class, EngineRuntimeHints.class, NativeHintsConfig.RestHints.class})
+public class NativeHintsConfig {
+
+    static class RestHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(CalculatorController.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                RestCalculationRequest.class, RestStreamCalculationResponse.class);
+            for (Class<?> message : new Class<?>[] {CalculateRequest.class, CalculateRequest.Builder.class,
+                CalculateResponse.class, CalculateResponse.Builder.class}) {
+                hints.reflection().registerType(message, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.control.PendingRequests;
+import com.example.calculatorapi.control.RequestMetrics;
+import com.example.calculatorapi.control.SingleFlight;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PendingRequestsConfig {
+
+    @Value("${rest.request.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${rest.request.timeout-tick-ms:10}")
+    private long tickMs;
+
+    @Value("${rest.request.max-in-flight:100000}")
+    private int maxInFlight;
+
+    @Bean
+    public PendingRequests<CalculationResponse> pendingCalculations(RequestMetrics requestMetrics) {
+        return new PendingRequests<>("pending-calculations", timeoutMs, tickMs, maxInFlight, requestMetrics::replied);
+    }
+
+    @Bean
+    public PendingRequests<BulkCalculationResponse> pendingBulkCalculations() {
+        return new PendingRequests<>("pending-bulk-calculations", timeoutMs, tickMs, maxInFlight);
+    }
+
+    @Bean
+    public SingleFlight<CalculationKey, CalculationResponse> calculationFlights() {
+        return new SingleFlight<>(timeoutMs);
+    }
+}
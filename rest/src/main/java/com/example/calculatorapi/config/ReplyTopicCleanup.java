@@ -0,0 +1,78 @@
+package com.example.calculatorapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.GroupIdNotFoundException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deletes this instance's reply topics and consumer group when it shuts down. Every instance
+ * id gets its own topics, and with a new id per pod or per restart they would otherwise pile
+ * up on the brokers. An instance that crashes leaves them behind; with a stable
+ * {@code rest.instance-id} its successor picks them up again.
+ */
+@Slf4j
+class ReplyTopicCleanup implements SmartLifecycle {
+    private final Supplier<Admin> admin;
+    private final List<String> topics;
+    private final String groupId;
+    private final long timeoutMs;
+    private volatile boolean running;
+
+    ReplyTopicCleanup(Supplier<Admin> admin, List<String> topics, String groupId, long timeoutMs) {
+        this.admin = admin;
+        this.topics = topics;
+        this.groupId = groupId;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try (Admin client = admin.get()) {
+            await(client.deleteTopics(topics).all(), "reply topics " + topics);
+            await(client.deleteConsumerGroups(List.of(groupId)).all(), "consumer group " + groupId);
+        } finally {
+            running = false;
+        }
+    }
+
+    // shutdown goes on whatever the brokers answer; what is left behind is only logged
+    private void await(KafkaFuture<Void> deletion, String what) {
+        try {
+            deletion.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof UnknownTopicOrPartitionException || e.getCause() instanceof GroupIdNotFoundException)) {
+                log.warn("Could not delete {}: {}", what, e.getCause().toString());
+            }
+        } catch (TimeoutException e) {
+            log.warn("Could not delete {} within {} ms", what, timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // below the web and gRPC servers, which stop after the reply listeners
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+}
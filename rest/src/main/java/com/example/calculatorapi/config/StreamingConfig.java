@@ -0,0 +1,25 @@
+package com.example.calculatorapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs the {@code StreamingResponseBody} of {@code /calculate/stream} on a virtual thread per
+ * stream. Each body holds its thread for as long as the client keeps the stream open, so on
+ * Boot's eight-thread {@code applicationTaskExecutor} the ninth stream would wait for one of
+ * the first eight to end. The number of streams is left to Tomcat's connection limit; their
+ * timeout stays with {@code spring.mvc.async.request-timeout}.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // not a bean: an Executor bean would stand in for applicationTaskExecutor everywhere else
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("calculate-stream-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.calculatorapi.config;
+
+import com.example.calculatorapi.control.CalculationTransport;
+import com.example.calculatorapi.control.ConcurrencyLimiter;
+import com.example.calculatorapi.control.KafkaCalculationTransport;
+import com.example.calculatorapi.control.LimitedCalculationTransport;
+import com.example.calculatorapi.control.PendingRequests;
+import com.example.calculatorapi.control.RequestMetrics;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Optional;
+
+@Configuration
+@ConditionalOnProperty(name = "rest.transport", havingValue = "kafka", matchIfMissing = true)
+public class TransportConfig {
+
+    @Bean
+    public CalculationTransport calculationTransport(KafkaTemplate<String, CalculationRequest> kafkaTemplate,
+                                                     PendingRequests<CalculationResponse> pendingCalculations,
+                                                     @Value("#{@replyTopic.name()}") String replyTopic,
+                                                     RequestMetrics requestMetrics,
+                                                     Optional<ConcurrencyLimiter> concurrencyLimiter) {
+        return limited(new KafkaCalculationTransport(kafkaTemplate, pendingCalculations, replyTopic, requestMetrics),
+            concurrencyLimiter);
+    }
+
+    // without rest.limit.enabled the transport is used as is
+    static CalculationTransport limited(CalculationTransport transport, Optional<ConcurrencyLimiter> limiter) {
+        return limiter.<CalculationTransport>map(l -> new LimitedCalculationTransport(transport, l)).orElse(transport);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.kafka.Priority;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Carries a calculation from {@link CalculatorController} to the calculator and its answer
+ * back, chosen with {@code rest.transport}. The future completes with the response, or fails
+ * with a {@link RuntimeException} carrying the calculator's error message, with a
+ * {@link java.util.concurrent.TimeoutException} when no answer came in time, or with the
+ * error that stopped the request from being sent.
+ */
+public interface CalculationTransport {
+
+    /**
+     * @param key      the record key, which picks the partition for transports that have any
+     * @param priority the lane the calculation travels in, for transports that have lanes
+     * @throws RejectedExecutionException if too many calculations are already in flight
+     */
+    CompletableFuture<CalculationResponse> send(CalculationRequest request, String key, Priority priority);
+}
@@ -1,110 +1,474 @@
 package com.example.calculatorapi.control;
 
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
+import com.example.calculatorapi.dto.RestBulkCalculationRequest;
+import com.example.calculatorapi.dto.RestBulkCalculationResponse;
 import com.example.calculatorapi.dto.RestCalculationRequest;
 import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.dto.RestExpressionRequest;
+import com.example.calculatorapi.dto.RestStreamCalculationResponse;
+import com.example.calculatorapi.kafka.Deadline;
+import com.example.calculatorapi.kafka.Priority;
+import com.example.calculatorapi.logging.LogSampler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static com.example.calculatorapi.logging.LogSampler.CORRELATION_ID;
 
 @Slf4j
 @RestController
-@RequiredArgsConstructor
 public class CalculatorController {
+    /** Picks the lane of a calculation: {@code interactive} (the default) or {@code batch}. */
+    public static final String PRIORITY_HEADER = "X-Priority";
+
+    private final CalculationTransport transport;
+    private final KafkaTemplate<String, ExpressionRequest> expressionTemplate;
+    private final KafkaTemplate<String, BulkCalculationRequest> bulkTemplate;
+    private final byte[] replyTopic;
+    private final byte[] bulkReplyTopic;
+    private final int maxBulkItems;
+    private final int maxExpressionLength;
+    private final int streamWindow;
+    private final RecordKey recordKey;
+    private final ObjectMapper objectMapper;
+    private final PendingRequests<CalculationResponse> pending;
+    private final PendingRequests<BulkCalculationResponse> pendingBulk;
+    private final FrontCache frontCache;
+    private final SingleFlight<CalculationKey, CalculationResponse> flights;
+    private final RequestMetrics metrics;
+    private final LogSampler logSampler;
+    private static final RestStreamCalculationResponse END_OF_STREAM = new RestStreamCalculationResponse(-1, null, null);
 
-    private final KafkaTemplate<String, CalculationRequest> requestTemplate;
-    private final Map<String, CompletableFuture<CalculationResponse>> pending = new ConcurrentHashMap<>();
-    private static final long TIMEOUT_MS = 5000;
+    public CalculatorController(CalculationTransport transport,
+                                KafkaTemplate<String, ExpressionRequest> expressionTemplate,
+                                KafkaTemplate<String, BulkCalculationRequest> bulkTemplate,
+                                PendingRequests<CalculationResponse> pending,
+                                PendingRequests<BulkCalculationResponse> pendingBulk,
+                                FrontCache frontCache,
+                                SingleFlight<CalculationKey, CalculationResponse> flights,
+                                RequestMetrics metrics,
+                                LogSampler logSampler,
+                                @Value("#{@replyTopic.name()}") String replyTopic,
+                                @Value("#{@bulkReplyTopic.name()}") String bulkReplyTopic,
+                                @Value("${rest.bulk.max-items:10000}") int maxBulkItems,
+                                @Value("${rest.expression.max-length:1000}") int maxExpressionLength,
+                                @Value("${rest.stream.max-in-flight:256}") int streamWindow,
+                                @Value("${rest.kafka.record-key:CORRELATION_ID}") RecordKey recordKey,
+                                ObjectMapper objectMapper) {
+        this.transport = transport;
+        this.expressionTemplate = expressionTemplate;
+        this.bulkTemplate = bulkTemplate;
+        this.pending = pending;
+        this.pendingBulk = pendingBulk;
+        this.frontCache = frontCache;
+        this.flights = flights;
+        this.metrics = metrics;
+        this.logSampler = logSampler;
+        this.replyTopic = replyTopic.getBytes(StandardCharsets.UTF_8);
+        this.bulkReplyTopic = bulkReplyTopic.getBytes(StandardCharsets.UTF_8);
+        this.maxBulkItems = maxBulkItems;
+        this.maxExpressionLength = maxExpressionLength;
+        this.streamWindow = streamWindow;
+        this.recordKey = recordKey;
+        this.objectMapper = objectMapper;
+    }
 
-    Map<String, CompletableFuture<CalculationResponse>> getPending() {
-        return pending;
+    @KafkaListener(topics = "#{@replyTopic.name()}", containerFactory = "restKafkaListenerContainerFactory")
+    public void listenResponses(CalculationResponse calcResponse,
+                                @Header(name = Deadline.HEADER, required = false) byte[] deadline) {
+        log.debug("Received calculation response for correlation ID: {}", calcResponse.correlationId());
+        if (Deadline.expired(deadline, System.currentTimeMillis())) {
+            pending.lateReply();
+            return;
+        }
+        if (calcResponse.errorMessage() != null) {
+            metrics.calculationError();
+            pending.fail(calcResponse.correlationId(), new RuntimeException(calcResponse.errorMessage()));
+        } else {
+            pending.complete(calcResponse.correlationId(), calcResponse);
+        }
     }
 
-    @KafkaListener(topics = "calc-responses", groupId = "rest-group", containerFactory = "restKafkaListenerContainerFactory")
-    public void listenResponses(CalculationResponse calcResponse) {
+    @KafkaListener(topics = "#{@bulkReplyTopic.name()}", containerFactory = "restBulkKafkaListenerContainerFactory")
+    public void listenBulkResponses(BulkCalculationResponse bulkResponse,
+                                    @Header(name = Deadline.HEADER, required = false) byte[] deadline) {
+        log.debug("Received bulk calculation response for correlation ID: {}", bulkResponse.correlationId());
+        if (Deadline.expired(deadline, System.currentTimeMillis())) {
+            pendingBulk.lateReply();
+            return;
+        }
+        pendingBulk.complete(bulkResponse.correlationId(), bulkResponse);
+    }
+
+    @PostMapping("/calculate")
+    public CompletableFuture<ResponseEntity<RestCalculationResponse>> calculate(@Valid @RequestBody RestCalculationRequest request,
+                                                                         @RequestHeader(name = RecordKey.CLIENT_HEADER, required = false) String clientId,
+                                                                         @RequestHeader(name = PRIORITY_HEADER, required = false) String priority) {
+
+        long start = System.nanoTime();
+        String correlationId = CorrelationIds.next();
+        // the correlation id rides on the events themselves, so the hot path never touches the MDC
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Received calculation request: {} {} {}", request.a(), request.operation(), request.b());
+        }
+
+        String error = validate(request);
+        if (error != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new RestCalculationResponse(null, error)));
+        }
+
+        CompletableFuture<CalculationResponse> future;
         try {
-            MDC.put("correlationId", calcResponse.correlationId());
-            log.debug("Received calculation response for correlation ID: {}", calcResponse.correlationId());
-            CompletableFuture<CalculationResponse> future = pending.get(calcResponse.correlationId());
-            if (future != null) {
-                if (calcResponse.errorMessage() != null) {
-                    future.completeExceptionally(new RuntimeException(calcResponse.errorMessage()));
-                } else {
-                    future.complete(calcResponse);
+            future = send(correlationId, clientId, Priority.of(priority, Priority.INTERACTIVE), request);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(correlationId, new RestCalculationResponse(null, e.getMessage())));
+        }
+
+        // No request thread waits here: the servlet container completes the HTTP exchange
+        // once the reply listener (or the timeout) completes the future.
+        return future
+            .thenApply(response -> calculated(start, onResponse(correlationId, request, response)))
+            .exceptionally(e -> calculated(start,
+                onFailure(correlationId, e, failure -> new RestCalculationResponse(null, failure))));
+    }
+
+    @PostMapping(value = "/calculate/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateStream(HttpServletRequest servletRequest) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(out -> streamCalculations(servletRequest.getInputStream(), out,
+                servletRequest.getHeader(RecordKey.CLIENT_HEADER),
+                Priority.of(servletRequest.getHeader(PRIORITY_HEADER), Priority.INTERACTIVE)));
+    }
+
+    /**
+     * Reads one {@link RestCalculationRequest} per line and writes one
+     * {@link RestStreamCalculationResponse} per line in completion order. At most
+     * {@code streamWindow} requests are in flight: the reader stops taking lines from the
+     * client until a result has been written, so a slow calculator or a slow client pushes
+     * back on the sender instead of growing {@code pending}.
+     */
+    void streamCalculations(InputStream in, OutputStream out, String clientId, Priority priority) throws IOException {
+        Semaphore window = new Semaphore(streamWindow);
+        BlockingQueue<RestStreamCalculationResponse> results = new LinkedBlockingQueue<>();
+        Thread reader = Thread.ofVirtual().name("calculate-stream-reader").start(() -> {
+            try {
+                readCalculations(in, clientId, priority, window, results);
+                // every permit is back once the last in-flight result has been written
+                window.acquire(streamWindow);
+            } catch (IOException e) {
+                log.warn("Calculation stream aborted: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                results.add(END_OF_STREAM);
+            }
+        });
+
+        try {
+            while (true) {
+                RestStreamCalculationResponse result = results.take();
+                if (result == END_OF_STREAM) {
+                    break;
+                }
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                if (results.isEmpty()) {
+                    out.flush();
                 }
-                pending.remove(calcResponse.correlationId());
+                window.release();
             }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
-            MDC.clear();
+            reader.interrupt();
         }
     }
 
-    @PostMapping("/calculate")
-    @SneakyThrows
-    public ResponseEntity<RestCalculationResponse> calculate(@Valid @RequestBody RestCalculationRequest request) {
+    private void readCalculations(InputStream in, String clientId, Priority priority, Semaphore window,
+                                  BlockingQueue<RestStreamCalculationResponse> results)
+            throws IOException, InterruptedException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            window.acquire();
 
-        String correlationId = UUID.randomUUID().toString();
-        MDC.put("correlationId", correlationId);
-        log.info("Received calculation request: {} {} {}", request.a(), request.operation(), request.b());
+            long current = lineNumber;
+            RestCalculationRequest request;
+            try {
+                request = objectMapper.readValue(line, RestCalculationRequest.class);
+            } catch (JsonProcessingException e) {
+                results.add(new RestStreamCalculationResponse(current, null, "Invalid request: " + e.getOriginalMessage()));
+                continue;
+            }
+            String error = validate(request);
+            if (error != null) {
+                results.add(new RestStreamCalculationResponse(current, null, error));
+                continue;
+            }
 
+            String correlationId = CorrelationIds.next();
+            CompletableFuture<CalculationResponse> future;
+            try {
+                future = send(correlationId, clientId, priority, request);
+            } catch (RejectedExecutionException e) {
+                results.add(new RestStreamCalculationResponse(current, null, e.getMessage()));
+                continue;
+            } catch (RuntimeException e) {
+                // answered on its own line: escaping here would cut the response short without a word
+                log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Calculation failed: {}", e.getMessage());
+                results.add(new RestStreamCalculationResponse(current, null, e.getMessage()));
+                continue;
+            }
+            future.whenComplete((response, e) -> {
+                if (e == null) {
+                    results.add(new RestStreamCalculationResponse(current, response.result(), null));
+                } else {
+                    results.add(new RestStreamCalculationResponse(current, null,
+                        e instanceof TimeoutException ? "Request timed out" : e.getMessage()));
+                }
+            });
+        }
+    }
+
+    private static String validate(RestCalculationRequest request) {
         if (request.operation() == null) {
-            return ResponseEntity.badRequest()
-                .body(new RestCalculationResponse(null, "Operation cannot be null"));
+            return "Operation cannot be null";
         }
         if (request.a() == null) {
-            return ResponseEntity.badRequest()
-                .body(new RestCalculationResponse(null, "First number cannot be null"));
+            return "First number cannot be null";
         }
         if (request.b() == null) {
-            return ResponseEntity.badRequest()
-                .body(new RestCalculationResponse(null, "Second number cannot be null"));
+            return "Second number cannot be null";
+        }
+        return null;
+    }
+
+    private CompletableFuture<CalculationResponse> send(String correlationId, String clientId, Priority priority,
+                                                        RestCalculationRequest request) {
+        BigDecimal cached = frontCache.get(request);
+        if (cached != null) {
+            log.debug("Answered calculation request from the front cache");
+            return CompletableFuture.completedFuture(new CalculationResponse(correlationId, cached, null));
+        }
+
+        String operation = request.operation().name().toLowerCase();
+        String key = recordKey.of(clientId, correlationId);
+        // batch requests are never coalesced, so an interactive request cannot end up waiting in the batch lane
+        if (priority != Priority.INTERACTIVE) {
+            return sendCalculation(correlationId, key, priority, operation, request);
+        }
+        // an identical request already in flight shares its Kafka round trip instead of sending another
+        return flights.execute(CalculationKey.exact(operation, request.a(), request.b()),
+            () -> sendCalculation(correlationId, key, priority, operation, request));
+    }
+
+    private CompletableFuture<CalculationResponse> sendCalculation(String correlationId, String key, Priority priority,
+                                                                   String operation, RestCalculationRequest request) {
+        CompletableFuture<CalculationResponse> future =
+            transport.send(new CalculationRequest(operation, request.a(), request.b(), correlationId), key, priority);
+
+        if (frontCache.enabled()) {
+            future.thenAccept(response -> frontCache.put(request, response.result()));
+        }
+        return future;
+    }
+
+    private <V> void publish(KafkaTemplate<String, V> template, ProducerRecord<String, V> record,
+                             PendingRequests<?> registry, String correlationId) {
+        KafkaCalculationTransport.publish(template, record, registry, correlationId, metrics);
+    }
+
+    private <T> T calculated(long startNanos, T response) {
+        metrics.calculated(startNanos);
+        return response;
+    }
+
+    @PostMapping("/evaluate")
+    public CompletableFuture<ResponseEntity<RestCalculationResponse>> evaluate(@RequestBody RestExpressionRequest request) {
+
+        String correlationId = CorrelationIds.next();
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Received expression request: {} with {}", request.expression(), request.variables());
+        }
+
+        if (request.expression() == null || request.expression().isBlank()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new RestCalculationResponse(null, "Expression cannot be empty")));
+        }
+        if (request.expression().length() > maxExpressionLength) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new RestCalculationResponse(null, "Expression longer than " + maxExpressionLength + " characters")));
         }
 
-        var calcRequest = new CalculationRequest(
-            request.operation().name().toLowerCase(),
-            request.a(),
-            request.b(),
+        var expressionRequest = new ExpressionRequest(
+            request.expression(),
+            request.variables() != null ? request.variables() : Map.of(),
             correlationId
         );
 
-        CompletableFuture<CalculationResponse> future = new CompletableFuture<>();
-        pending.put(correlationId, future);
+        CompletableFuture<CalculationResponse> future;
+        try {
+            future = pending.register(correlationId);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(correlationId, new RestCalculationResponse(null, e.getMessage())));
+        }
+
+        var record = new ProducerRecord<String, ExpressionRequest>("calc-expressions", correlationId, expressionRequest);
+        record.headers().add(KafkaHeaders.REPLY_TOPIC, replyTopic);
+        publish(expressionTemplate, record, pending, correlationId);
+
+        return future
+            .thenApply(response -> onExpressionResponse(correlationId, request, response))
+            .exceptionally(e -> onFailure(correlationId, e, error -> new RestCalculationResponse(null, error)));
+    }
 
-        requestTemplate.send("calc-requests", calcRequest);
+    @PostMapping("/calculate/bulk")
+    public CompletableFuture<ResponseEntity<RestBulkCalculationResponse>> calculateBulk(@RequestBody RestBulkCalculationRequest request) {
+
+        String correlationId = CorrelationIds.next();
+        List<RestCalculationRequest> operations = request.operations();
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Received bulk calculation request with {} operations", operations != null ? operations.size() : 0);
+        }
+
+        if (operations == null || operations.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new RestBulkCalculationResponse(null, "Operations cannot be empty")));
+        }
+        if (operations.size() > maxBulkItems) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new RestBulkCalculationResponse(null, "At most " + maxBulkItems + " operations are allowed")));
+        }
 
+        List<BulkCalculationRequest.Item> items = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            RestCalculationRequest operation = operations.get(i);
+            if (operation == null || operation.operation() == null || operation.a() == null || operation.b() == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new RestBulkCalculationResponse(null, "Operation " + i + " must have a, b and operation")));
+            }
+            items.add(new BulkCalculationRequest.Item(
+                operation.operation().name().toLowerCase(),
+                operation.a(),
+                operation.b()
+            ));
+        }
+
+        CompletableFuture<BulkCalculationResponse> future;
         try {
-            CalculationResponse response = future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            log.info("Calculation completed successfully: {} {} {} = {}",
+            future = pendingBulk.register(correlationId);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(correlationId, new RestBulkCalculationResponse(null, e.getMessage())));
+        }
+
+        var record = new ProducerRecord<String, BulkCalculationRequest>("calc-bulk-requests",
+            correlationId, new BulkCalculationRequest(items, correlationId));
+        record.headers().add(KafkaHeaders.REPLY_TOPIC, bulkReplyTopic);
+        publish(bulkTemplate, record, pendingBulk, correlationId);
+
+        return future
+            .thenApply(response -> onBulkResponse(correlationId, response))
+            .exceptionally(e -> onFailure(correlationId, e, error -> new RestBulkCalculationResponse(null, error)));
+    }
+
+    private ResponseEntity<RestCalculationResponse> onResponse(String correlationId,
+                                                               RestCalculationRequest request,
+                                                               CalculationResponse response) {
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId).log("Calculation completed successfully: {} {} {} = {}",
                 request.a(), request.operation(), request.b(), response.result());
-            return ResponseEntity.ok(new RestCalculationResponse(response.result(), null));
-        } catch (TimeoutException e) {
-            log.error("Calculation timed out after {} ms", TIMEOUT_MS);
-            pending.remove(correlationId);
-            return ResponseEntity.badRequest()
-                .body(new RestCalculationResponse(null, "Request timed out"));
-        } catch (Exception e) {
-            log.error("Calculation failed: {}", e.getMessage());
-            pending.remove(correlationId);
-            return ResponseEntity.badRequest()
-                .body(new RestCalculationResponse(null, e.getMessage()));
-        } finally {
-            MDC.clear();
         }
+        return ResponseEntity.ok(new RestCalculationResponse(response.result(), null));
+    }
+
+    private ResponseEntity<RestCalculationResponse> onExpressionResponse(String correlationId,
+                                                                         RestExpressionRequest request,
+                                                                         CalculationResponse response) {
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId)
+                .log("Expression evaluated successfully: {} = {}", request.expression(), response.result());
+        }
+        return ResponseEntity.ok(new RestCalculationResponse(response.result(), null));
+    }
+
+    private ResponseEntity<RestBulkCalculationResponse> onBulkResponse(String correlationId,
+                                                                       BulkCalculationResponse response) {
+        List<RestCalculationResponse> results = response.results().stream()
+            .map(result -> new RestCalculationResponse(result.result(), result.errorMessage()))
+            .toList();
+        if (log.isInfoEnabled() && logSampler.sampled(correlationId)) {
+            log.atInfo().addKeyValue(CORRELATION_ID, correlationId).log("Bulk calculation completed: {} results", results.size());
+        }
+        return ResponseEntity.ok(new RestBulkCalculationResponse(results, null));
+    }
+
+    private <T> ResponseEntity<T> onFailure(String correlationId, Throwable e, Function<String, T> errorBody) {
+        // a coalesced caller whose shared request was turned away is overloaded too, not wrong
+        if (e.getCause() instanceof RejectedExecutionException rejected) {
+            return tooManyRequests(correlationId, errorBody.apply(rejected.getMessage()));
+        }
+        if (e.getCause() instanceof TimeoutException) {
+            log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Calculation timed out after {} ms", pending.timeoutMs());
+            return ResponseEntity.badRequest().body(errorBody.apply("Request timed out"));
+        }
+        log.atError().addKeyValue(CORRELATION_ID, correlationId).log("Calculation failed: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(errorBody.apply(e.getMessage()));
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(String correlationId, T body) {
+        log.atWarn().addKeyValue(CORRELATION_ID, correlationId).log("Rejected request: too many requests in flight");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.grpc.CalculateRequest;
+import com.example.calculatorapi.grpc.CalculateResponse;
+import com.example.calculatorapi.grpc.CalculatorGrpc;
+import com.example.calculatorapi.grpc.Operation;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+/**
+ * gRPC front end over the same path as {@code POST /calculate}: every call goes through
+ * {@link CalculatorController#calculate}, so validation, the front cache, coalescing, the
+ * pending-request registry, its timeout and the error messages are those of REST. A failed
+ * unary call carries the status matching REST's HTTP status; on a stream the error is
+ * written into the reply instead, as {@code /calculate/stream} does.
+ */
+@Slf4j
+public class CalculatorGrpcService extends CalculatorGrpc.CalculatorImplBase {
+    static final Metadata.Key<String> CLIENT_HEADER =
+        Metadata.Key.of(RecordKey.CLIENT_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    static final Context.Key<String> CLIENT_ID = Context.key(RecordKey.CLIENT_HEADER);
+    static final Metadata.Key<String> PRIORITY_HEADER =
+        Metadata.Key.of(CalculatorController.PRIORITY_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    static final Context.Key<String> PRIORITY = Context.key(CalculatorController.PRIORITY_HEADER);
+
+    private final CalculatorController controller;
+    private final int streamWindow;
+
+    /**
+     * @param streamWindow requests in flight per stream before the service stops reading
+     *                     from the client
+     */
+    public CalculatorGrpcService(CalculatorController controller, int streamWindow) {
+        this.controller = controller;
+        this.streamWindow = streamWindow;
+    }
+
+    /**
+     * The service with the interceptor that hands the {@code X-Client-Id} metadata to its
+     * calls, for {@link RecordKey#CLIENT}, and the {@code X-Priority} metadata that picks
+     * their lane.
+     */
+    public ServerServiceDefinition definition() {
+        ServerInterceptor metadata = new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                               ServerCallHandler<Q, R> next) {
+                Context context = Context.current()
+                    .withValue(CLIENT_ID, headers.get(CLIENT_HEADER))
+                    .withValue(PRIORITY, headers.get(PRIORITY_HEADER));
+                return Contexts.interceptCall(context, call, headers, next);
+            }
+        };
+        return ServerInterceptors.intercept(this, metadata);
+    }
+
+    @Override
+    public void calculate(CalculateRequest request, StreamObserver<CalculateResponse> responseObserver) {
+        RestCalculationRequest restRequest;
+        try {
+            restRequest = toRestRequest(request);
+        } catch (NumberFormatException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        controller.calculate(restRequest, CLIENT_ID.get(), PRIORITY.get()).whenComplete((response, e) -> {
+            if (e != null) {
+                responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+            } else if (response.getStatusCode().is2xxSuccessful()) {
+                responseObserver.onNext(toResponse(request.getId(), response));
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(status(response.getStatusCode().value())
+                    .withDescription(response.getBody().error())
+                    .asRuntimeException());
+            }
+        });
+    }
+
+    /**
+     * Answers each request in completion order. Inbound flow control is manual: the
+     * service asks for {@code streamWindow} requests up front and for one more whenever a
+     * reply has been written, so a slow calculator pushes back on the client through
+     * HTTP/2 flow control instead of growing {@code pending}.
+     */
+    @Override
+    public StreamObserver<CalculateRequest> calculateStream(StreamObserver<CalculateResponse> responseObserver) {
+        var replies = (ServerCallStreamObserver<CalculateResponse>) responseObserver;
+        replies.disableAutoRequest();
+        replies.setOnCancelHandler(() -> log.debug("Calculation stream cancelled by the client"));
+        replies.request(streamWindow);
+        return new CalculationStream(replies, CLIENT_ID.get(), PRIORITY.get());
+    }
+
+    private final class CalculationStream implements StreamObserver<CalculateRequest> {
+        private final ServerCallStreamObserver<CalculateResponse> replies;
+        private final String clientId;
+        private final String priority;
+        private int inFlight;
+        private boolean halfClosed;
+        private boolean closed;
+
+        CalculationStream(ServerCallStreamObserver<CalculateResponse> replies, String clientId, String priority) {
+            this.replies = replies;
+            this.clientId = clientId;
+            this.priority = priority;
+        }
+
+        @Override
+        public void onNext(CalculateRequest request) {
+            synchronized (this) {
+                inFlight++;
+            }
+            RestCalculationRequest restRequest;
+            try {
+                restRequest = toRestRequest(request);
+            } catch (NumberFormatException e) {
+                reply(error(request.getId(), e.getMessage()));
+                return;
+            }
+            controller.calculate(restRequest, clientId, priority).whenComplete((response, e) ->
+                reply(e != null ? error(request.getId(), e.getMessage()) : toResponse(request.getId(), response)));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("Calculation stream aborted: {}", t.getMessage());
+            synchronized (this) {
+                closed = true;
+            }
+        }
+
+        @Override
+        public synchronized void onCompleted() {
+            halfClosed = true;
+            if (inFlight == 0) {
+                close();
+            }
+        }
+
+        // replies complete on listener, timer and request threads; the observer is not thread-safe
+        private synchronized void reply(CalculateResponse response) {
+            inFlight--;
+            if (closed || replies.isCancelled()) {
+                return;
+            }
+            replies.onNext(response);
+            if (halfClosed && inFlight == 0) {
+                close();
+            } else {
+                replies.request(1);
+            }
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
+                replies.onCompleted();
+            }
+        }
+    }
+
+    static RestCalculationRequest toRestRequest(CalculateRequest request) {
+        return new RestCalculationRequest(decimal(request.getA()), decimal(request.getB()),
+            operation(request.getOperation()));
+    }
+
+    private static BigDecimal decimal(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid number: " + value);
+        }
+    }
+
+    private static com.example.calculatorapi.dto.Operation operation(Operation operation) {
+        return switch (operation) {
+            case SUM -> com.example.calculatorapi.dto.Operation.SUM;
+            case SUBTRACTION -> com.example.calculatorapi.dto.Operation.SUBTRACTION;
+            case MULTIPLICATION -> com.example.calculatorapi.dto.Operation.MULTIPLICATION;
+            case DIVISION -> com.example.calculatorapi.dto.Operation.DIVISION;
+            case OPERATION_UNSPECIFIED, UNRECOGNIZED -> null;
+        };
+    }
+
+    private static CalculateResponse toResponse(long id, ResponseEntity<RestCalculationResponse> response) {
+        RestCalculationResponse body = response.getBody();
+        if (body.error() != null) {
+            return error(id, body.error());
+        }
+        return CalculateResponse.newBuilder().setId(id).setResult(body.result().toString()).build();
+    }
+
+    private static CalculateResponse error(long id, String message) {
+        return CalculateResponse.newBuilder().setId(id).setError(message).build();
+    }
+
+    // the statuses the REST endpoint answers with, mapped as the gRPC-HTTP mapping does
+    private static Status status(int httpStatus) {
+        if (httpStatus == HttpStatus.BAD_REQUEST.value()) {
+            return Status.INVALID_ARGUMENT;
+        }
+        if (httpStatus == HttpStatus.SERVICE_UNAVAILABLE.value()
+            || httpStatus == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return Status.UNAVAILABLE;
+        }
+        return Status.INTERNAL;
+    }
+}
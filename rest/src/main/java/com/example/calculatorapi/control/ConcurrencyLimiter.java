@@ -0,0 +1,96 @@
+package com.example.calculatorapi.control;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the calculations in flight with a limit that follows the observed round-trip time,
+ * additive-increase/multiplicative-decrease style. A round trip that comes back within
+ * {@code latencyThresholdMs} while the limit is at least half used raises the limit by
+ * one; a slower one, or one that timed out, multiplies it by {@code backoff}. Once the
+ * calculator falls behind the limit shrinks, and callers beyond it are turned away at
+ * once instead of each waiting out the request timeout.
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejections = new LongAdder();
+    private double limit;
+    private volatile int currentLimit;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs, double backoff) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoff = backoff;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.currentLimit = (int) limit;
+    }
+
+    /**
+     * Takes a slot for one calculation; whoever gets {@code true} must call
+     * {@link #release} once it is answered.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejections.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param roundTripNanos time from sending the calculation to its answer
+     * @param dropped        whether the calculation timed out or was never delivered
+     */
+    public void release(long roundTripNanos, boolean dropped) {
+        int used = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped || roundTripNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoff);
+            } else if (used * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rest.limit.current", this, ConcurrencyLimiter::limit)
+            .description("Calculations allowed in flight")
+            .register(registry);
+        Gauge.builder("rest.limit.in-flight", this, ConcurrencyLimiter::inFlight)
+            .description("Calculations in flight under the limit")
+            .register(registry);
+        FunctionCounter.builder("rest.limit.rejected", this, ConcurrencyLimiter::rejections)
+            .description("Calculations rejected at the concurrency limit")
+            .register(registry);
+    }
+}
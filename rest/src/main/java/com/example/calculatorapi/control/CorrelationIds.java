@@ -0,0 +1,50 @@
+package com.example.calculatorapi.control;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correlation ids of this JVM: 64 random bits drawn once at startup followed by a 64-bit
+ * sequence, written in the usual UUID form. Making one is an atomic increment instead of a
+ * trip through the shared {@link SecureRandom} behind {@link UUID#randomUUID()}, ids from
+ * two instances differ in their random half, and the form is the one logs, the binary
+ * codec (16 raw bytes) and the calculator already handle. {@link #key} turns an id back
+ * into its sequence, which {@link PendingRequests} keys its tables by.
+ */
+public final class CorrelationIds {
+    private static final long INSTANCE = new SecureRandom().nextLong();
+    // "xxxxxxxx-xxxx-xxxx-": the random half, shared by every id of this JVM
+    private static final String PREFIX = new UUID(INSTANCE, 0).toString().substring(0, 19);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private CorrelationIds() {
+    }
+
+    public static String next() {
+        return new UUID(INSTANCE, SEQUENCE.incrementAndGet()).toString();
+    }
+
+    /**
+     * @return the sequence of an id made by {@link #next()} in this JVM, or {@code -1} for
+     *         any other string
+     */
+    public static long key(String correlationId) {
+        if (correlationId == null || correlationId.length() != 36 || !correlationId.startsWith(PREFIX)
+            || correlationId.charAt(23) != '-') {
+            return -1;
+        }
+        long sequence = 0;
+        for (int i = 19; i < 36; i++) {
+            if (i == 23) {
+                continue;
+            }
+            int digit = Character.digit(correlationId.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            sequence = sequence << 4 | digit;
+        }
+        return sequence;
+    }
+}
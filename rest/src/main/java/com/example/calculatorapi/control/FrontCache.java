@@ -0,0 +1,68 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/**
+ * Results remembered in front of the calculator, so a repeated request is answered
+ * without a Kafka round trip. Division and multiplication keys carry the scale and
+ * rounding mode the calculator applies, which must therefore match its configuration.
+ */
+public class FrontCache implements MeterBinder {
+    private final ResultCache cache;
+    private final int divisionScale;
+    private final RoundingMode divisionRoundingMode;
+    private final int multiplicationScale;
+    private final RoundingMode multiplicationRoundingMode;
+
+    public FrontCache(ResultCache cache,
+                      int divisionScale, RoundingMode divisionRoundingMode,
+                      int multiplicationScale, RoundingMode multiplicationRoundingMode) {
+        this.cache = cache;
+        this.divisionScale = divisionScale;
+        this.divisionRoundingMode = divisionRoundingMode;
+        this.multiplicationScale = multiplicationScale;
+        this.multiplicationRoundingMode = multiplicationRoundingMode;
+    }
+
+    public static FrontCache disabled() {
+        return new FrontCache(ResultCache.disabled(), 0, RoundingMode.UNNECESSARY, 0, RoundingMode.UNNECESSARY);
+    }
+
+    public boolean enabled() {
+        return cache.enabled();
+    }
+
+    public BigDecimal get(RestCalculationRequest request) {
+        return cache.enabled() ? cache.get(key(request)) : null;
+    }
+
+    public void put(RestCalculationRequest request, BigDecimal result) {
+        cache.put(key(request), result);
+    }
+
+    public ResultCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    private CalculationKey key(RestCalculationRequest request) {
+        String operation = request.operation().name().toLowerCase(Locale.ROOT);
+        return switch (request.operation()) {
+            case DIVISION -> CalculationKey.rounded(operation, request.a(), request.b(), divisionScale, divisionRoundingMode);
+            case MULTIPLICATION -> CalculationKey.rounded(operation, request.a(), request.b(), multiplicationScale, multiplicationRoundingMode);
+            case SUM, SUBTRACTION -> CalculationKey.exact(operation, request.a(), request.b());
+        };
+    }
+}
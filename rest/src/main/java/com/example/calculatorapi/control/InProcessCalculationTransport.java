@@ -0,0 +1,35 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.kafka.Priority;
+import com.example.calculatorapi.service.CalculationProcessor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calculates on the calling thread through the calculator's {@link CalculationProcessor},
+ * for deployments where both services share a JVM. Nothing is serialized or sent, so
+ * nothing can time out, but the futures fail exactly as the Kafka reply listener fails
+ * them, and callers see the same responses and errors. There is no queue to jump, so the
+ * priority is ignored.
+ */
+public class InProcessCalculationTransport implements CalculationTransport {
+    private final CalculationProcessor processor;
+    private final RequestMetrics metrics;
+
+    public InProcessCalculationTransport(CalculationProcessor processor, RequestMetrics metrics) {
+        this.processor = processor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletableFuture<CalculationResponse> send(CalculationRequest request, String key, Priority priority) {
+        CalculationResponse response = processor.calculate(request);
+        if (response.errorMessage() != null) {
+            metrics.calculationError();
+            return CompletableFuture.failedFuture(new RuntimeException(response.errorMessage()));
+        }
+        return CompletableFuture.completedFuture(response);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.kafka.Deadline;
+import com.example.calculatorapi.kafka.Priority;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes calculations to the request topic of their {@link Priority} lane with this instance's reply topic in the
+ * {@link KafkaHeaders#REPLY_TOPIC} header; the reply listener of {@link CalculatorController}
+ * completes the future registered in {@link PendingRequests}. Every record also carries the
+ * {@link Deadline} its request times out at, so the calculator can skip it once nobody
+ * waits for the answer any more.
+ */
+public class KafkaCalculationTransport implements CalculationTransport {
+    private final KafkaTemplate<String, CalculationRequest> template;
+    private final PendingRequests<CalculationResponse> pending;
+    private final byte[] replyTopic;
+    private final RequestMetrics metrics;
+
+    public KafkaCalculationTransport(KafkaTemplate<String, CalculationRequest> template,
+                                     PendingRequests<CalculationResponse> pending,
+                                     String replyTopic,
+                                     RequestMetrics metrics) {
+        this.template = template;
+        this.pending = pending;
+        this.replyTopic = replyTopic.getBytes(StandardCharsets.UTF_8);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletableFuture<CalculationResponse> send(CalculationRequest request, String key, Priority priority) {
+        CompletableFuture<CalculationResponse> future = pending.register(request.correlationId());
+
+        var record = new ProducerRecord<>(priority.topic(), key, request);
+        record.headers().add(KafkaHeaders.REPLY_TOPIC, replyTopic);
+        publish(template, record, pending, request.correlationId(), metrics);
+        return future;
+    }
+
+    // a record the producer fails to send fails its request right away instead of waiting for the timeout
+    static <V> void publish(KafkaTemplate<String, V> template, ProducerRecord<String, V> record,
+                            PendingRequests<?> registry, String correlationId, RequestMetrics metrics) {
+        long start = System.nanoTime();
+        record.headers().add(Deadline.HEADER, Deadline.encode(System.currentTimeMillis() + registry.timeoutMs()));
+        try {
+            template.send(record).whenComplete((result, e) -> {
+                if (e != null) {
+                    metrics.sendError();
+                    registry.fail(correlationId, e);
+                } else {
+                    metrics.sent(start);
+                }
+            });
+        } catch (RuntimeException e) {
+            metrics.sendError();
+            registry.fail(correlationId, e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.kafka.Priority;
+import org.springframework.kafka.KafkaException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends through another transport under a {@link ConcurrencyLimiter}, which learns from
+ * the round-trip time of every calculation. Calculations over the limit are rejected with
+ * a {@link RejectedExecutionException}, which callers answer with 503 like a full
+ * {@link PendingRequests}. Only interactive calculations are limited: batch ones wait in
+ * their own lane by design, so their round trip says nothing about how the calculator keeps
+ * up and would only shrink the limit for everyone.
+ */
+public class LimitedCalculationTransport implements CalculationTransport {
+    private final CalculationTransport transport;
+    private final ConcurrencyLimiter limiter;
+
+    public LimitedCalculationTransport(CalculationTransport transport, ConcurrencyLimiter limiter) {
+        this.transport = transport;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public CompletableFuture<CalculationResponse> send(CalculationRequest request, String key, Priority priority) {
+        if (priority != Priority.INTERACTIVE) {
+            return transport.send(request, key, priority);
+        }
+        if (!limiter.tryAcquire()) {
+            throw new RejectedExecutionException("Concurrency limit reached");
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<CalculationResponse> future;
+        try {
+            future = transport.send(request, key, priority);
+        } catch (RuntimeException e) {
+            limiter.release(System.nanoTime() - start, true);
+            throw e;
+        }
+        future.whenComplete((response, e) -> limiter.release(System.nanoTime() - start, e != null && dropped(e)));
+        return future;
+    }
+
+    // an error reply still measures a round trip; only a timeout or a failed send means none came back
+    static boolean dropped(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof TimeoutException
+            || cause instanceof KafkaException
+            || cause instanceof org.apache.kafka.common.KafkaException;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.calculatorapi.control;
+
+/**
+ * Thread-safe map from {@code long} keys to values, with open addressing so an entry costs
+ * a slot in two arrays instead of a node and a boxed or string key. The table is split into
+ * stripes by the high bits of the key's hash, each a linear-probing table behind its own
+ * lock that doubles when it is three quarters full. Removal shifts the following entries of
+ * the probe run back, so no tombstones build up as entries come and go.
+ */
+final class LongHashTable<V> {
+    private static final int STRIPES = 16;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    LongHashTable(int expectedSize) {
+        int perStripe = Math.max(8, Integer.highestOneBit(Math.max(1, expectedSize / STRIPES)) << 1);
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+    }
+
+    V get(long key) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.get(key, hash);
+        }
+    }
+
+    /** @return the value {@code key} had, or {@code null} */
+    V put(long key, V value) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.put(key, hash, value);
+        }
+    }
+
+    /** @return the value {@code key} had, or {@code null} */
+    V remove(long key) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.remove(key, hash, null);
+        }
+    }
+
+    /** Removes {@code key} only while it maps to {@code value} itself. */
+    boolean remove(long key, V value) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.remove(key, hash, value) != null;
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private Stripe<V> stripe(long hash) {
+        return stripes[(int) (hash >>> 60)];
+    }
+
+    // sequential keys must not end up in neighbouring slots of one probe run
+    private static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Stripe<V> {
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        Stripe(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int i = (int) hash & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (V) values[i];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, long hash, V value) {
+            int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    V previous = (V) values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size > keys.length * 3 / 4) {
+                resize();
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key, long hash, V expected) {
+            int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            V removed = (V) values[i];
+            if (removed == null || (expected != null && removed != expected)) {
+                return null;
+            }
+            size--;
+            // pull back every later entry of the run that may not sit past the hole
+            int hole = i;
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = (int) hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            values[hole] = null;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = (int) hash(oldKeys[j]) & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+}
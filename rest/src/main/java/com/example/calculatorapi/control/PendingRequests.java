@@ -0,0 +1,280 @@
+package com.example.calculatorapi.control;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Requests waiting for a reply, keyed by correlation id. Only ids made by
+ * {@link CorrelationIds} can be registered: the tables are keyed by their sequence in a
+ * {@link LongHashTable}, so an entry holds no string and no map node, and a reply whose id
+ * this instance never made is told apart without a lookup.
+ *
+ * <p>Whoever removes an entry from the map owns its future: a reply completes it, the
+ * timer wheel fails it with a {@link TimeoutException}, and the loser of that race does
+ * nothing. Deadlines are kept in a hashed timer wheel that a single thread advances
+ * every {@code tickMs}, so registering and expiring a request is O(1) however many are
+ * in flight. An answered request lets go of its future at once and leaves only its key
+ * and deadline in its bucket until that comes round, so what stays reachable is bounded
+ * by the requests in flight. Timed-out futures are failed on virtual threads, so their
+ * continuations never hold up the ticker and the expiries behind them.
+ * Expired ids are remembered for one more timeout so that a reply arriving after its
+ * deadline can be told apart from a reply nobody asked for.
+ */
+public class PendingRequests<T> implements AutoCloseable, MeterBinder {
+    private final LongHashTable<Entry<T>> pending;
+    private final LongHashTable<Boolean> expired;
+    private final AtomicInteger size = new AtomicInteger();
+    private final Queue<Entry<T>>[] wheel;
+    private final String name;
+    private final LongConsumer replyLatency;
+    private final long timeoutMs;
+    private final long tickNanos;
+    private final long timeoutTicks;
+    private final int capacity;
+    private final long startNanos = System.nanoTime();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService timeoutCompletions;
+    private long processedTick;
+    // expired ids remembered, only touched by the ticker thread
+    private int tombstones;
+
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder lateReplies = new LongAdder();
+    private final LongAdder orphanReplies = new LongAdder();
+
+    public PendingRequests(String name, long timeoutMs, long tickMs, int capacity) {
+        this(name, timeoutMs, tickMs, capacity, latencyNanos -> {});
+    }
+
+    /**
+     * @param replyLatency receives the nanoseconds between registering a request and
+     *                     completing it with a reply
+     */
+    @SuppressWarnings("unchecked")
+    public PendingRequests(String name, long timeoutMs, long tickMs, int capacity, LongConsumer replyLatency) {
+        this.name = name;
+        this.replyLatency = replyLatency;
+        this.timeoutMs = timeoutMs;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.timeoutTicks = Math.max(1, (timeoutMs + tickMs - 1) / tickMs);
+        this.capacity = capacity;
+        this.pending = new LongHashTable<>(capacity);
+        this.expired = new LongHashTable<>(capacity);
+
+        // room for a request deadline plus the tombstone kept for one more timeout
+        int slots = Integer.highestOneBit((int) Math.min(1 << 30, 2 * timeoutTicks + 2)) << 1;
+        this.wheel = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        this.timeoutCompletions = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-timeout-", 0).factory());
+    }
+
+    /**
+     * Registers a request and returns the future its reply completes.
+     *
+     * @throws IllegalArgumentException   if {@code id} was not made by {@link CorrelationIds}
+     * @throws RejectedExecutionException if {@code capacity} requests are already pending
+     */
+    public CompletableFuture<T> register(String id) {
+        long key = CorrelationIds.key(id);
+        if (key < 0) {
+            throw new IllegalArgumentException("Not a correlation id of this instance: " + id);
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            rejections.increment();
+            throw new RejectedExecutionException("Too many requests in flight");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Entry<T> entry = new Entry<>(key, future, System.nanoTime(), currentTick() + timeoutTicks);
+        pending.put(key, entry);
+        schedule(entry);
+        return future;
+    }
+
+    public boolean complete(String id, T value) {
+        Entry<T> entry = take(id);
+        if (entry == null) {
+            return false;
+        }
+        replyLatency.accept(System.nanoTime() - entry.registeredNanos);
+        return entry.release().complete(value);
+    }
+
+    public boolean fail(String id, Throwable error) {
+        Entry<T> entry = take(id);
+        return entry != null && entry.release().completeExceptionally(error);
+    }
+
+    /**
+     * Counts a reply that arrived past its request's deadline and was dropped without
+     * looking it up.
+     */
+    public void lateReply() {
+        lateReplies.increment();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long timeoutMs() {
+        return timeoutMs;
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long rejections() {
+        return rejections.sum();
+    }
+
+    public long lateReplies() {
+        return lateReplies.sum();
+    }
+
+    public long orphanReplies() {
+        return orphanReplies.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rest.requests.pending", this, PendingRequests::size)
+            .description("Requests waiting for a reply")
+            .tag("registry", name)
+            .register(registry);
+        counter(registry, "rest.requests.timeouts", "Requests failed for lack of a reply", PendingRequests::timeouts);
+        counter(registry, "rest.requests.rejected", "Requests rejected with too many in flight", PendingRequests::rejections);
+        counter(registry, "rest.replies.late", "Replies that arrived after their request timed out", PendingRequests::lateReplies);
+        counter(registry, "rest.replies.orphan", "Replies to requests this instance never sent", PendingRequests::orphanReplies);
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        timeoutCompletions.shutdownNow();
+    }
+
+    private void counter(MeterRegistry registry, String meterName, String description,
+                         ToDoubleFunction<PendingRequests<T>> count) {
+        FunctionCounter.builder(meterName, this, count)
+            .description(description)
+            .tag("registry", name)
+            .register(registry);
+    }
+
+    private Entry<T> take(String id) {
+        long key = CorrelationIds.key(id);
+        Entry<T> entry = key >= 0 ? pending.remove(key) : null;
+        if (entry != null) {
+            size.decrementAndGet();
+        } else if (key >= 0 && expired.get(key) != null) {
+            lateReplies.increment();
+        } else {
+            orphanReplies.increment();
+        }
+        return entry;
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    private void schedule(Entry<T> entry) {
+        wheel[(int) (entry.deadlineTick & (wheel.length - 1))].add(entry);
+    }
+
+    private void advance() {
+        long now = currentTick();
+        while (processedTick < now) {
+            processedTick++;
+            expire(processedTick);
+        }
+    }
+
+    private void expire(long tick) {
+        var bucket = wheel[(int) (tick & (wheel.length - 1))].iterator();
+        while (bucket.hasNext()) {
+            Entry<T> entry = bucket.next();
+            if (entry.deadlineTick > tick) {
+                continue;
+            }
+            bucket.remove();
+            if (entry.tombstone) {
+                expired.remove(entry.key);
+                tombstones--;
+            } else if (pending.remove(entry.key, entry)) {
+                size.decrementAndGet();
+                timeouts.increment();
+                if (tombstones < capacity) {
+                    tombstones++;
+                    expired.put(entry.key, Boolean.TRUE);
+                    schedule(Entry.tombstone(entry.key, tick + timeoutTicks));
+                }
+                CompletableFuture<T> future = entry.release();
+                timeoutCompletions.execute(() -> future.completeExceptionally(new TimeoutException()));
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        final long key;
+        final long registeredNanos;
+        final long deadlineTick;
+        final boolean tombstone;
+        // only read and cleared by whoever removed the entry from the map
+        private CompletableFuture<T> future;
+
+        Entry(long key, CompletableFuture<T> future, long registeredNanos, long deadlineTick) {
+            this(key, future, registeredNanos, deadlineTick, false);
+        }
+
+        private Entry(long key, CompletableFuture<T> future, long registeredNanos, long deadlineTick, boolean tombstone) {
+            this.key = key;
+            this.future = future;
+            this.registeredNanos = registeredNanos;
+            this.deadlineTick = deadlineTick;
+            this.tombstone = tombstone;
+        }
+
+        static <T> Entry<T> tombstone(long key, long deadlineTick) {
+            return new Entry<>(key, null, 0, deadlineTick, true);
+        }
+
+        CompletableFuture<T> release() {
+            CompletableFuture<T> released = future;
+            future = null;
+            return released;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.calculatorapi.control;
+
+/**
+ * Record key of the requests sent to the calculator. The key picks the partition, so
+ * requests sharing a key are consumed in order by the same calculator listener.
+ */
+public enum RecordKey {
+    /** Spreads requests evenly over the partitions. */
+    CORRELATION_ID,
+    /**
+     * Keeps the requests of one client on one partition, keyed by the {@value #CLIENT_HEADER}
+     * header; requests without it fall back to their correlation id.
+     */
+    CLIENT;
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    public String of(String clientId, String correlationId) {
+        return this == CLIENT && clientId != null && !clientId.isBlank() ? clientId : correlationId;
+    }
+}
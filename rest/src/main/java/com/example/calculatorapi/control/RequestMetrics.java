@@ -0,0 +1,62 @@
+package com.example.calculatorapi.control;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the request pipeline. They are registered once, and observations are taken
+ * as {@link System#nanoTime()} differences rather than {@link Timer.Sample}s, so recording
+ * one allocates nothing.
+ */
+public class RequestMetrics {
+    private final Timer calculations;
+    private final Timer sends;
+    private final Timer replies;
+    private final Counter calculationErrors;
+    private final Counter sendErrors;
+
+    public RequestMetrics(MeterRegistry registry) {
+        this.calculations = timer(registry, "rest.calculate", "End-to-end latency of POST /calculate");
+        this.sends = timer(registry, "rest.kafka.send", "Time until Kafka acknowledges a request record");
+        this.replies = timer(registry, "rest.reply", "Time from registering a calculation to its reply arriving");
+        this.calculationErrors = errors(registry, "calculation");
+        this.sendErrors = errors(registry, "send");
+    }
+
+    public void calculated(long startNanos) {
+        calculations.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void sent(long startNanos) {
+        sends.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void replied(long latencyNanos) {
+        replies.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void calculationError() {
+        calculationErrors.increment();
+    }
+
+    public void sendError() {
+        sendErrors.increment();
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Counter errors(MeterRegistry registry, String type) {
+        return Counter.builder("rest.errors")
+            .description("Requests failed by the calculator or by Kafka")
+            .tag("type", type)
+            .register(registry);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.calculatorapi.control;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Identical calls that share one execution while it is in flight.
+ *
+ * <p>The first caller for a key runs the call and gets its future back. Callers arriving
+ * before that future completes get their own future, completed with the same outcome or
+ * failed with a {@link TimeoutException} once their own {@code timeoutMs} has passed, so a
+ * caller that gives up never affects the others. If the shared call itself times out, the
+ * callers still waiting run their own call for what is left of their time instead of
+ * failing with the leader. The key is released as soon as the call completes; the next
+ * caller starts a new one.
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+    private final LongAdder joined = new LongAdder();
+
+    public SingleFlight(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            joined.increment();
+            log.debug("Joined in-flight call for {}", key);
+            return join(key, existing, call);
+        }
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+            throw e;
+        }
+        result.whenComplete((value, e) -> {
+            inFlight.remove(key, shared);
+            complete(shared, value, e);
+        });
+        return result;
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    public long joined() {
+        return joined.sum();
+    }
+
+    // completes with the leader's own exception rather than a CompletionException around it
+    private CompletableFuture<V> join(K key, CompletableFuture<V> shared, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> follower = new CompletableFuture<>();
+        shared.whenComplete((value, e) -> {
+            if (unwrap(e) instanceof TimeoutException) {
+                retry(key, follower, call);
+            } else {
+                complete(follower, value, e);
+            }
+        });
+        return follower.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // the leader's timeout is not the follower's: it runs its own call, still under its own deadline
+    private void retry(K key, CompletableFuture<V> follower, Supplier<CompletableFuture<V>> call) {
+        if (follower.isDone()) {
+            return;
+        }
+        log.debug("Shared call for {} timed out, running it again for a waiting caller", key);
+        try {
+            execute(key, call).whenComplete((value, e) -> complete(follower, value, e));
+        } catch (RuntimeException e) {
+            follower.completeExceptionally(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static <V> void complete(CompletableFuture<V> future, V value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(unwrap(error));
+        } else {
+            future.complete(value);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.calculatorapi.dto;
+
+import java.util.List;
+
+public record RestBulkCalculationRequest(
+    List<RestCalculationRequest> operations
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.calculatorapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RestBulkCalculationResponse(
+    List<RestCalculationResponse> results,
+    String error
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.calculatorapi.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record RestExpressionRequest(
+    String expression,
+    Map<String, BigDecimal> variables
+) {
+}
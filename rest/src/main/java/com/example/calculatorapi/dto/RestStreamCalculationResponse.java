@@ -0,0 +1,13 @@
+package com.example.calculatorapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RestStreamCalculationResponse(
+    long line,
+    BigDecimal result,
+    String error
+) {
+}
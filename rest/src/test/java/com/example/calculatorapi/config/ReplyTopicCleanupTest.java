@@ -0,0 +1,33 @@
+package com.example.calculatorapi.config;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedKafka(partitions = 1, topics = {"calc-responses.rest-1", "calc-bulk-responses.rest-1", "calc-responses.rest-2"})
+class ReplyTopicCleanupTest {
+
+    @Test
+    void stop_deletesOnlyThisInstancesReplyTopics(EmbeddedKafkaBroker broker) throws Exception {
+        Map<String, Object> config = Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        var cleanup = new ReplyTopicCleanup(() -> Admin.create(config),
+            List.of("calc-responses.rest-1", "calc-bulk-responses.rest-1"), "rest-group.rest-1", 10_000);
+        cleanup.start();
+
+        cleanup.stop();
+
+        assertThat(cleanup.isRunning()).isFalse();
+        try (Admin admin = Admin.create(config)) {
+            assertThat(admin.listTopics().names().get())
+                .contains("calc-responses.rest-2")
+                .doesNotContain("calc-responses.rest-1", "calc-bulk-responses.rest-1");
+        }
+    }
+}
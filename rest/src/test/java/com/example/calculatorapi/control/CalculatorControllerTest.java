@@ -1,10 +1,26 @@
 package com.example.calculatorapi.control;
 
+import com.example.calculatorapi.cache.CalculationKey;
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.BulkCalculationRequest;
+import com.example.calculatorapi.dto.BulkCalculationResponse;
 import com.example.calculatorapi.dto.CalculationRequest;
 import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.ExpressionRequest;
 import com.example.calculatorapi.dto.Operation;
+import com.example.calculatorapi.dto.RestBulkCalculationRequest;
+import com.example.calculatorapi.dto.RestBulkCalculationResponse;
 import com.example.calculatorapi.dto.RestCalculationRequest;
 import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.dto.RestExpressionRequest;
+import com.example.calculatorapi.dto.RestStreamCalculationResponse;
+import com.example.calculatorapi.kafka.Deadline;
+import com.example.calculatorapi.kafka.Priority;
+import com.example.calculatorapi.logging.LogSampler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,19 +28,32 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.context.TestPropertySource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,17 +64,79 @@ import static org.mockito.Mockito.*;
 @EmbeddedKafka(partitions = 1, topics = {"calc-requests", "calc-responses"})
 class CalculatorControllerTest {
 
+    private static final String REPLY_TOPIC = "calc-responses.test-instance";
+    private static final String BULK_REPLY_TOPIC = "calc-bulk-responses.test-instance";
+
     @Mock
     private KafkaTemplate<String, CalculationRequest> kafkaTemplate;
 
+    @Mock
+    private KafkaTemplate<String, ExpressionRequest> expressionTemplate;
+
+    @Mock
+    private KafkaTemplate<String, BulkCalculationRequest> bulkTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, CalculationRequest>> recordCaptor;
+
     @Captor
-    private ArgumentCaptor<CalculationRequest> requestCaptor;
+    private ArgumentCaptor<ProducerRecord<String, ExpressionRequest>> expressionCaptor;
 
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, BulkCalculationRequest>> bulkCaptor;
+
+    private PendingRequests<CalculationResponse> pending;
+    private PendingRequests<BulkCalculationResponse> pendingBulk;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FrontCache frontCache = FrontCache.disabled();
+    private SingleFlight<CalculationKey, CalculationResponse> flights = new SingleFlight<>(5000);
+    private RecordKey recordKey = RecordKey.CORRELATION_ID;
     private CalculatorController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new CalculatorController(kafkaTemplate);
+        pending = new PendingRequests<>("test", 5000, 10, 2000);
+        pendingBulk = new PendingRequests<>("test-bulk", 5000, 10, 2000);
+        controller = newController();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pending.close();
+        pendingBulk.close();
+    }
+
+    /**
+     * A controller that reaches the calculator only through {@code transport}: no templates,
+     * no pending tables and no front cache, for tests of the /calculate paths.
+     */
+    static CalculatorController controllerOver(CalculationTransport transport) {
+        return controllerOver(transport, new RequestMetrics(new SimpleMeterRegistry()), RecordKey.CORRELATION_ID, 2);
+    }
+
+    static CalculatorController controllerOver(CalculationTransport transport, RequestMetrics metrics,
+                                               RecordKey recordKey, int streamWindow) {
+        return new CalculatorController(transport, null, null, null, null, FrontCache.disabled(),
+            new SingleFlight<>(5000), metrics, new LogSampler(1), "calc-responses.test", "calc-bulk-responses.test",
+            3, 1000, streamWindow, recordKey, new ObjectMapper());
+    }
+
+    private CalculatorController newController() {
+        RequestMetrics metrics = new RequestMetrics(meterRegistry);
+        return new CalculatorController(new KafkaCalculationTransport(kafkaTemplate, pending, REPLY_TOPIC, metrics),
+            expressionTemplate, bulkTemplate, pending, pendingBulk, frontCache, flights, metrics, new LogSampler(1),
+            REPLY_TOPIC, BULK_REPLY_TOPIC, 3, 50, 2, recordKey, new ObjectMapper());
+    }
+
+    // typed, so send(ProducerRecord) is matched without an unchecked conversion
+    private static <V> ProducerRecord<String, V> anyRecord() {
+        return any();
+    }
+
+    private void usePending(long timeoutMs, int capacity) {
+        pending.close();
+        pending = new PendingRequests<>("test", timeoutMs, 10, capacity);
+        controller = newController();
     }
 
     @Test
@@ -58,33 +149,64 @@ class CalculatorControllerTest {
         );
 
         // simulate correct response
-        when(kafkaTemplate.send(eq("calc-requests"), any(CalculationRequest.class)))
+        when(kafkaTemplate.send(anyRecord()))
             .thenAnswer(invocation -> {
-                CalculationRequest capturedRequest = invocation.getArgument(1);
-                CompletableFuture<CalculationResponse> future = controller.getPending().get(capturedRequest.correlationId());
-                if (future != null) {
-                    future.complete(new CalculationResponse(
-                        capturedRequest.correlationId(),
-                        new BigDecimal("13.0"),
-                        null
-                    ));
-                }
-                return null;
+                CalculationRequest capturedRequest = invocation.<ProducerRecord<String, CalculationRequest>>getArgument(0).value();
+                pending.complete(capturedRequest.correlationId(), new CalculationResponse(
+                    capturedRequest.correlationId(),
+                    new BigDecimal("13.0"),
+                    null
+                ));
+                return new CompletableFuture<>();
             });
 
-        ResponseEntity<RestCalculationResponse> response = controller.calculate(request);
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
 
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().error()).isNull();
         assertThat(response.getBody().result()).isEqualTo(new BigDecimal("13.0"));
         
-        verify(kafkaTemplate).send(eq("calc-requests"), requestCaptor.capture());
-        CalculationRequest capturedRequest = requestCaptor.getValue();
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        ProducerRecord<String, CalculationRequest> record = recordCaptor.getValue();
+        assertThat(record.topic()).isEqualTo("calc-requests");
+        assertThat(record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value())
+            .isEqualTo(REPLY_TOPIC.getBytes(StandardCharsets.UTF_8));
+        CalculationRequest capturedRequest = record.value();
         assertThat(capturedRequest.operation()).isEqualTo("sum");
         assertThat(capturedRequest.a()).isEqualTo("10.5");
         assertThat(capturedRequest.b()).isEqualTo("2.5");
         assertThat(capturedRequest.correlationId()).isNotNull();
+        assertThat(record.key()).isEqualTo(capturedRequest.correlationId());
+    }
+
+    @Test
+    void calculate_ClientRecordKey_KeysByClientHeader() {
+        recordKey = RecordKey.CLIENT;
+        controller = newController();
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+
+        controller.calculate(new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), "tenant-a", null);
+        controller.calculate(new RestCalculationRequest(BigDecimal.TWO, BigDecimal.ONE, Operation.SUM), null, null);
+
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        List<ProducerRecord<String, CalculationRequest>> records = recordCaptor.getAllValues();
+        assertThat(records.get(0).key()).isEqualTo("tenant-a");
+        assertThat(records.get(1).key()).isEqualTo(records.get(1).value().correlationId());
+    }
+
+    @Test
+    void calculate_BatchPriority_SendsToBatchLaneWithoutCoalescing() {
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+        var request = new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM);
+
+        controller.calculate(request, null, "batch");
+        controller.calculate(request, null, "BATCH");
+        controller.calculate(request, null, "unknown");
+
+        verify(kafkaTemplate, times(3)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues()).extracting(ProducerRecord::topic)
+            .containsExactly("calc-requests-batch", "calc-requests-batch", "calc-requests");
     }
 
     @Test
@@ -96,7 +218,7 @@ class CalculatorControllerTest {
             null
         );
 
-        ResponseEntity<RestCalculationResponse> response = controller.calculate(request);
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
 
         assertThat(response.getStatusCode().is4xxClientError()).isTrue();
         assertThat(response.getBody()).isNotNull();
@@ -113,7 +235,7 @@ class CalculatorControllerTest {
             Operation.SUM
         );
 
-        ResponseEntity<RestCalculationResponse> response = controller.calculate(request);
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
 
         assertThat(response.getStatusCode().is4xxClientError()).isTrue();
         assertThat(response.getBody()).isNotNull();
@@ -130,7 +252,7 @@ class CalculatorControllerTest {
             Operation.SUM
         );
 
-        ResponseEntity<RestCalculationResponse> response = controller.calculate(request);
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
 
         assertThat(response.getStatusCode().is4xxClientError()).isTrue();
         assertThat(response.getBody()).isNotNull();
@@ -141,26 +263,25 @@ class CalculatorControllerTest {
     @Test
     void listenResponses_ValidResponse_CompletesFuture() {
 
-        String correlationId = "test-correlation-id";
+        String correlationId = CorrelationIds.next();
         CalculationResponse calcResponse = new CalculationResponse(
             correlationId,
             new BigDecimal("13.0"),
             null
         );
         
-        CompletableFuture<CalculationResponse> future = new CompletableFuture<>();
-        controller.getPending().put(correlationId, future);
+        CompletableFuture<CalculationResponse> future = pending.register(correlationId);
 
-        controller.listenResponses(calcResponse);
+        controller.listenResponses(calcResponse, null);
 
         assertThat(future).isCompletedWithValue(calcResponse);
-        assertThat(controller.getPending()).doesNotContainKey(correlationId);
+        assertThat(pending.size()).isZero();
     }
 
     @Test
     void listenResponses_ErrorResponse_CompletesFutureExceptionally() {
 
-        String correlationId = "test-correlation-id";
+        String correlationId = CorrelationIds.next();
         String errorMessage = "Division by zero";
         CalculationResponse calcResponse = new CalculationResponse(
             correlationId,
@@ -168,10 +289,9 @@ class CalculatorControllerTest {
             errorMessage
         );
         
-        CompletableFuture<CalculationResponse> future = new CompletableFuture<>();
-        controller.getPending().put(correlationId, future);
+        CompletableFuture<CalculationResponse> future = pending.register(correlationId);
 
-        controller.listenResponses(calcResponse);
+        controller.listenResponses(calcResponse, null);
 
         assertThat(future).isCompletedExceptionally();
         assertThat(future)
@@ -179,7 +299,7 @@ class CalculatorControllerTest {
             .withThrowableOfType(ExecutionException.class)
             .withCauseInstanceOf(RuntimeException.class)
             .withMessageContaining(errorMessage);
-        assertThat(controller.getPending()).doesNotContainKey(correlationId);
+        assertThat(pending.size()).isZero();
     }
 
     @Test
@@ -191,14 +311,508 @@ class CalculatorControllerTest {
             Operation.SUM
         );
 
-        when(kafkaTemplate.send(eq("calc-requests"), any(CalculationRequest.class)))
-            .thenReturn(null);
+        usePending(200, 10);
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
 
-        ResponseEntity<RestCalculationResponse> response = controller.calculate(request);
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
 
         assertThat(response.getStatusCode().is4xxClientError()).isTrue();
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().error()).isEqualTo("Request timed out");
-        assertThat(controller.getPending()).isEmpty();
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    void calculate_ErrorResponse_ReturnsBadRequest() {
+
+        RestCalculationRequest request = new RestCalculationRequest(
+            new BigDecimal("10"),
+            BigDecimal.ZERO,
+            Operation.DIVISION
+        );
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                CalculationRequest capturedRequest = invocation.<ProducerRecord<String, CalculationRequest>>getArgument(0).value();
+                controller.listenResponses(new CalculationResponse(
+                    capturedRequest.correlationId(),
+                    null,
+                    "Division by zero"
+                ), null);
+                return new CompletableFuture<>();
+            });
+
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(request, null, null).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().error()).isEqualTo("java.lang.RuntimeException: Division by zero");
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    void calculate_ManyInFlightRequests_NotBoundByCallerThreads() {
+
+        int inFlight = 1000;
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+
+        // a single caller thread opens every request; none of them blocks it
+        List<CompletableFuture<ResponseEntity<RestCalculationResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < inFlight; i++) {
+            responses.add(controller.calculate(new RestCalculationRequest(BigDecimal.valueOf(i), new BigDecimal("2.5"), Operation.SUM), null, null));
+        }
+
+        assertThat(pending.size()).isEqualTo(inFlight);
+        assertThat(responses).noneMatch(CompletableFuture::isDone);
+
+        verify(kafkaTemplate, times(inFlight)).send(recordCaptor.capture());
+        recordCaptor.getAllValues().forEach(record -> controller.listenResponses(
+            new CalculationResponse(record.value().correlationId(), new BigDecimal("13.0"), null), null));
+
+        assertThat(responses).allSatisfy(future -> {
+            ResponseEntity<RestCalculationResponse> response = future.join();
+            assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+            assertThat(response.getBody().result()).isEqualTo(new BigDecimal("13.0"));
+        });
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    void evaluate_ValidRequest_ReturnsSuccess() {
+
+        RestExpressionRequest request = new RestExpressionRequest(
+            "(a + b) * c",
+            Map.of("a", new BigDecimal("1.5"), "b", new BigDecimal("2.5"), "c", new BigDecimal("3"))
+        );
+
+        when(expressionTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                ExpressionRequest capturedRequest = invocation.<ProducerRecord<String, ExpressionRequest>>getArgument(0).value();
+                controller.listenResponses(new CalculationResponse(
+                    capturedRequest.correlationId(),
+                    new BigDecimal("12.0"),
+                    null
+                ), null);
+                return new CompletableFuture<>();
+            });
+
+        ResponseEntity<RestCalculationResponse> response = controller.evaluate(request).join();
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getBody().result()).isEqualTo(new BigDecimal("12.0"));
+
+        verify(expressionTemplate).send(expressionCaptor.capture());
+        ProducerRecord<String, ExpressionRequest> record = expressionCaptor.getValue();
+        assertThat(record.topic()).isEqualTo("calc-expressions");
+        assertThat(record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value())
+            .isEqualTo(REPLY_TOPIC.getBytes(StandardCharsets.UTF_8));
+        assertThat(record.value().expression()).isEqualTo("(a + b) * c");
+        assertThat(record.value().variables()).containsEntry("c", new BigDecimal("3"));
+        assertThat(pending.size()).isZero();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void evaluate_NoVariables_SendsEmptyBindings() {
+
+        when(expressionTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+
+        controller.evaluate(new RestExpressionRequest("1 + 2", null));
+
+        verify(expressionTemplate).send(expressionCaptor.capture());
+        assertThat(expressionCaptor.getValue().value().variables()).isEmpty();
+    }
+
+    @Test
+    void evaluate_BlankExpression_ReturnsBadRequest() {
+
+        ResponseEntity<RestCalculationResponse> response =
+            controller.evaluate(new RestExpressionRequest("  ", Map.of())).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody().error()).isEqualTo("Expression cannot be empty");
+        verifyNoInteractions(expressionTemplate);
+    }
+
+    @Test
+    void evaluate_OverlongExpression_ReturnsBadRequest() {
+
+        ResponseEntity<RestCalculationResponse> response =
+            controller.evaluate(new RestExpressionRequest("(".repeat(10_000) + "1" + ")".repeat(10_000), Map.of())).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody().error()).isEqualTo("Expression longer than 50 characters");
+        verifyNoInteractions(expressionTemplate);
+    }
+
+    @Test
+    void calculateBulk_ValidRequest_ReturnsResultsInOrder() {
+
+        RestBulkCalculationRequest request = new RestBulkCalculationRequest(List.of(
+            new RestCalculationRequest(new BigDecimal("10.5"), new BigDecimal("2.5"), Operation.SUM),
+            new RestCalculationRequest(new BigDecimal("10"), BigDecimal.ZERO, Operation.DIVISION)
+        ));
+
+        when(bulkTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                BulkCalculationRequest capturedRequest = invocation.<ProducerRecord<String, BulkCalculationRequest>>getArgument(0).value();
+                controller.listenBulkResponses(new BulkCalculationResponse(capturedRequest.correlationId(), List.of(
+                    new BulkCalculationResponse.Result(new BigDecimal("13.0"), null),
+                    new BulkCalculationResponse.Result(null, "Division by zero")
+                )), null);
+                return new CompletableFuture<>();
+            });
+
+        ResponseEntity<RestBulkCalculationResponse> response = controller.calculateBulk(request).join();
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getBody().results()).containsExactly(
+            new RestCalculationResponse(new BigDecimal("13.0"), null),
+            new RestCalculationResponse(null, "Division by zero")
+        );
+
+        verify(bulkTemplate).send(bulkCaptor.capture());
+        ProducerRecord<String, BulkCalculationRequest> record = bulkCaptor.getValue();
+        assertThat(record.topic()).isEqualTo("calc-bulk-requests");
+        assertThat(record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value())
+            .isEqualTo(BULK_REPLY_TOPIC.getBytes(StandardCharsets.UTF_8));
+        assertThat(record.value().items()).containsExactly(
+            new BulkCalculationRequest.Item("sum", new BigDecimal("10.5"), new BigDecimal("2.5")),
+            new BulkCalculationRequest.Item("division", new BigDecimal("10"), BigDecimal.ZERO)
+        );
+        assertThat(pendingBulk.size()).isZero();
+    }
+
+    @Test
+    void calculateBulk_InvalidItem_ReturnsBadRequest() {
+
+        RestBulkCalculationRequest request = new RestBulkCalculationRequest(List.of(
+            new RestCalculationRequest(new BigDecimal("10.5"), new BigDecimal("2.5"), Operation.SUM),
+            new RestCalculationRequest(new BigDecimal("10"), null, Operation.DIVISION)
+        ));
+
+        ResponseEntity<RestBulkCalculationResponse> response = controller.calculateBulk(request).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody().error()).isEqualTo("Operation 1 must have a, b and operation");
+        verifyNoInteractions(bulkTemplate);
+    }
+
+    @Test
+    void calculateBulk_TooManyItems_ReturnsBadRequest() {
+
+        RestCalculationRequest item = new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM);
+
+        ResponseEntity<RestBulkCalculationResponse> response =
+            controller.calculateBulk(new RestBulkCalculationRequest(List.of(item, item, item, item))).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody().error()).isEqualTo("At most 3 operations are allowed");
+        verifyNoInteractions(bulkTemplate);
+    }
+
+    @Test
+    void streamCalculations_WritesOneResultPerLine() throws Exception {
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                CalculationRequest capturedRequest = invocation.<ProducerRecord<String, CalculationRequest>>getArgument(0).value();
+                boolean divisionByZero = capturedRequest.b().signum() == 0;
+                controller.listenResponses(new CalculationResponse(
+                    capturedRequest.correlationId(),
+                    divisionByZero ? null : capturedRequest.a().add(capturedRequest.b()),
+                    divisionByZero ? "Division by zero" : null
+                ), null);
+                return new CompletableFuture<>();
+            });
+
+        String input = """
+            {"a": 1, "b": 2, "operation": "SUM"}
+
+            {"a": 10, "b": 0, "operation": "DIVISION"}
+            {"a": 1, "operation": "SUM"}
+            not json
+            {"a": 3, "b": 4, "operation": "SUM"}
+            """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        controller.streamCalculations(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out, null, Priority.INTERACTIVE);
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<RestStreamCalculationResponse> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, RestStreamCalculationResponse.class));
+        }
+        assertThat(results).hasSize(5);
+        assertThat(results).contains(
+            new RestStreamCalculationResponse(1, new BigDecimal("3"), null),
+            new RestStreamCalculationResponse(3, null, "Division by zero"),
+            new RestStreamCalculationResponse(4, null, "Second number cannot be null"),
+            new RestStreamCalculationResponse(6, new BigDecimal("7"), null)
+        );
+        assertThat(results).filteredOn(result -> result.line() == 5)
+            .singleElement()
+            .satisfies(result -> assertThat(result.error()).startsWith("Invalid request: "));
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    void streamCalculations_SendThrows_AnswersThatLineAndGoesOn() throws Exception {
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenThrow(new IllegalStateException("Producer closed"))
+            .thenAnswer(invocation -> {
+                CalculationRequest capturedRequest = invocation.<ProducerRecord<String, CalculationRequest>>getArgument(0).value();
+                controller.listenResponses(new CalculationResponse(
+                    capturedRequest.correlationId(), capturedRequest.a().add(capturedRequest.b()), null), null);
+                return new CompletableFuture<>();
+            });
+
+        String input = """
+            {"a": 1, "b": 2, "operation": "SUM"}
+            {"a": 3, "b": 4, "operation": "SUM"}
+            """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        controller.streamCalculations(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out, null, Priority.INTERACTIVE);
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<RestStreamCalculationResponse> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, RestStreamCalculationResponse.class));
+        }
+        assertThat(results).containsExactlyInAnyOrder(
+            new RestStreamCalculationResponse(1, null, "Producer closed"),
+            new RestStreamCalculationResponse(2, new BigDecimal("7"), null)
+        );
+    }
+
+    @Test
+    void streamCalculations_SlowCalculator_BoundsRequestsInFlight() throws Exception {
+
+        List<ProducerRecord<String, CalculationRequest>> sent = new CopyOnWriteArrayList<>();
+        when(kafkaTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                sent.add(invocation.getArgument(0));
+                return new CompletableFuture<>();
+            });
+
+        StringBuilder input = new StringBuilder();
+        for (int a = 1; a <= 5; a++) {
+            input.append("{\"a\": ").append(a).append(", \"b\": 2, \"operation\": \"SUM\"}\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> stream = executor.submit(() -> {
+                controller.streamCalculations(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), out, null, Priority.INTERACTIVE);
+                return new CompletableFuture<>();
+            });
+
+            // the window holds two requests, so the third line is not read until a reply arrives
+            for (int replied = 0; replied < 5; replied++) {
+                int expectedInFlight = Math.min(2, 5 - replied);
+                verify(kafkaTemplate, timeout(1000).times(replied + expectedInFlight)).send(anyRecord());
+                Thread.sleep(50);
+                assertThat(pending.size()).isEqualTo(expectedInFlight);
+                String correlationId = sent.get(replied).value().correlationId();
+                controller.listenResponses(new CalculationResponse(correlationId, new BigDecimal("3"), null), null);
+            }
+
+            stream.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(5);
+    }
+
+    @Test
+    void calculate_SendFails_FailsWithoutWaitingForTimeout() {
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), null, null).join();
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getBody().error()).isEqualTo("java.lang.IllegalStateException: Broker unavailable");
+        assertThat(pending.size()).isZero();
+        assertThat(pending.timeouts()).isZero();
+    }
+
+    @Test
+    void calculate_CapacityReached_ReturnsServiceUnavailable() {
+
+        usePending(5000, 1);
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<ResponseEntity<RestCalculationResponse>> first = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), null, null);
+        ResponseEntity<RestCalculationResponse> rejected = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.TWO, Operation.SUM), null, null).join();
+
+        assertThat(first).isNotDone();
+        assertThat(rejected.getStatusCode().value()).isEqualTo(503);
+        assertThat(rejected.getBody().error()).isEqualTo("Too many requests in flight");
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+    }
+
+    @Test
+    void listenResponses_LateReply_IsCountedNotDelivered() {
+
+        usePending(200, 10);
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+
+        ResponseEntity<RestCalculationResponse> response = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), null, null).join();
+        verify(kafkaTemplate).send(recordCaptor.capture());
+
+        controller.listenResponses(new CalculationResponse(recordCaptor.getValue().value().correlationId(), BigDecimal.TWO, null), null);
+        controller.listenResponses(new CalculationResponse("unknown", BigDecimal.TWO, null), null);
+
+        assertThat(response.getBody().error()).isEqualTo("Request timed out");
+        assertThat(pending.timeouts()).isEqualTo(1);
+        assertThat(pending.lateReplies()).isEqualTo(1);
+        assertThat(pending.orphanReplies()).isEqualTo(1);
+    }
+
+    @Test
+    void listenResponses_PastDeadline_IsDroppedAsLate() {
+
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<ResponseEntity<RestCalculationResponse>> response = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), null, null);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        ProducerRecord<String, CalculationRequest> record = recordCaptor.getValue();
+
+        controller.listenResponses(new CalculationResponse(record.value().correlationId(), BigDecimal.TWO, null),
+            Deadline.encode(System.currentTimeMillis() - 1));
+
+        assertThat(record.headers().lastHeader(Deadline.HEADER)).isNotNull();
+        assertThat(response).isNotDone();
+        assertThat(pending.size()).isEqualTo(1);
+        assertThat(pending.lateReplies()).isEqualTo(1);
+    }
+
+    @Test
+    void calculate_frontCacheHit_skipsKafka() {
+        frontCache = new FrontCache(new ResultCache("test", 100, Duration.ofMinutes(1)), 10, RoundingMode.HALF_UP, 1, RoundingMode.HALF_UP);
+        controller = newController();
+        when(kafkaTemplate.send(anyRecord()))
+            .thenAnswer(invocation -> {
+                CalculationRequest sent = invocation.<ProducerRecord<String, CalculationRequest>>getArgument(0).value();
+                controller.listenResponses(new CalculationResponse(sent.correlationId(), new BigDecimal("0.3333333333"), null), null);
+                return new CompletableFuture<>();
+            });
+
+        ResponseEntity<RestCalculationResponse> first = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, new BigDecimal("3"), Operation.DIVISION), null, null).join();
+        ResponseEntity<RestCalculationResponse> second = controller.calculate(
+            new RestCalculationRequest(new BigDecimal("1.0"), new BigDecimal("3.00"), Operation.DIVISION), null, null).join();
+
+        assertThat(first.getBody().result()).isEqualTo(new BigDecimal("0.3333333333"));
+        assertThat(second.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(second.getBody().result()).isEqualTo(new BigDecimal("0.3333333333"));
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        assertThat(frontCache.cache().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void calculate_IdenticalRequestsInFlight_ShareOneKafkaRequest() {
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+        RestCalculationRequest request = new RestCalculationRequest(BigDecimal.ONE, BigDecimal.TWO, Operation.SUM);
+
+        List<CompletableFuture<ResponseEntity<RestCalculationResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            responses.add(controller.calculate(request, null, null));
+        }
+
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
+        assertThat(pending.size()).isEqualTo(1);
+        assertThat(flights.joined()).isEqualTo(9);
+        controller.listenResponses(new CalculationResponse(recordCaptor.getValue().value().correlationId(), new BigDecimal("3"), null), null);
+
+        assertThat(responses).allSatisfy(future ->
+            assertThat(future.join().getBody().result()).isEqualTo(new BigDecimal("3")));
+        assertThat(flights.size()).isZero();
+
+        controller.calculate(request, null, null);
+        verify(kafkaTemplate, times(2)).send(anyRecord());
+    }
+
+    @Test
+    void calculate_JoinedRequestTimesOut_LeavesSharedRequestRunning() {
+        flights = new SingleFlight<>(100);
+        controller = newController();
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(new CompletableFuture<>());
+        RestCalculationRequest request = new RestCalculationRequest(BigDecimal.ONE, BigDecimal.TWO, Operation.SUM);
+
+        CompletableFuture<ResponseEntity<RestCalculationResponse>> first = controller.calculate(request, null, null);
+        ResponseEntity<RestCalculationResponse> joined = controller.calculate(request, null, null).join();
+
+        assertThat(joined.getBody().error()).isEqualTo("Request timed out");
+        assertThat(first).isNotDone();
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        controller.listenResponses(new CalculationResponse(recordCaptor.getValue().value().correlationId(), new BigDecimal("3"), null), null);
+        assertThat(first.join().getBody().result()).isEqualTo(new BigDecimal("3"));
+    }
+
+    @Test
+    void calculate_RecordsLatencyAndErrors() {
+        when(kafkaTemplate.send(anyRecord()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        var first = controller.calculate(new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM), null, null);
+        var second = controller.calculate(new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ZERO, Operation.DIVISION), null, null);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        controller.listenResponses(new CalculationResponse(
+            recordCaptor.getAllValues().get(0).value().correlationId(), new BigDecimal("2"), null), null);
+        controller.listenResponses(new CalculationResponse(
+            recordCaptor.getAllValues().get(1).value().correlationId(), null, "Division by zero"), null);
+        first.join();
+        second.join();
+
+        assertThat(meterRegistry.get("rest.calculate").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rest.kafka.send").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rest.errors").tag("type", "calculation").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rest.errors").tag("type", "send").counter().count()).isZero();
+    }
+
+    @Test
+    void calculate_OverConcurrencyLimit_AnswersServiceUnavailableAtOnce() {
+        CalculationTransport slowCalculator = (request, key, priority) -> new CompletableFuture<>();
+        var controller = controllerOver(
+            new LimitedCalculationTransport(slowCalculator, new ConcurrencyLimiter(1, 1, 10, 1000, 0.5)));
+
+        controller.calculate(new RestCalculationRequest(BigDecimal.ONE, BigDecimal.TWO, Operation.SUM), null, null);
+        CompletableFuture<ResponseEntity<RestCalculationResponse>> rejected =
+            controller.calculate(new RestCalculationRequest(BigDecimal.TEN, BigDecimal.TWO, Operation.SUM), null, null);
+
+        assertThat(rejected).isDone();
+        assertThat(rejected.join().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.join().getBody()).isEqualTo(new RestCalculationResponse(null, "Concurrency limit reached"));
+    }
+
+    @Test
+    void calculate_SharedRequestRejected_AnswersServiceUnavailable() {
+        var controller = controllerOver((request, key, priority) ->
+            CompletableFuture.failedFuture(new RejectedExecutionException("Concurrency limit reached")));
+
+        ResponseEntity<RestCalculationResponse> response =
+            controller.calculate(new RestCalculationRequest(BigDecimal.ONE, BigDecimal.TWO, Operation.SUM), null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).isEqualTo(new RestCalculationResponse(null, "Concurrency limit reached"));
     }
-} 
\ No newline at end of file
+}
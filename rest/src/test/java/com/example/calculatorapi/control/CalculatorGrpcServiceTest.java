@@ -0,0 +1,237 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.grpc.CalculateRequest;
+import com.example.calculatorapi.grpc.CalculateResponse;
+import com.example.calculatorapi.grpc.CalculatorGrpc;
+import com.example.calculatorapi.grpc.Operation;
+import com.example.calculatorapi.kafka.Priority;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CalculatorGrpcServiceTest {
+
+    private static final int STREAM_WINDOW = 2;
+
+    private final Queue<String> sentKeys = new ConcurrentLinkedQueue<>();
+    private final Queue<Priority> sentPriorities = new ConcurrentLinkedQueue<>();
+    private BiFunction<CalculationRequest, String, CompletableFuture<CalculationResponse>> calculator;
+    private RecordKey recordKey = RecordKey.CORRELATION_ID;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        calculator = (request, key) -> CompletableFuture.completedFuture(new CalculationResponse(
+            request.correlationId(), request.a().add(request.b()), null));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private CalculatorGrpc.CalculatorBlockingStub start() throws Exception {
+        CalculationTransport transport = (request, key, priority) -> {
+            sentKeys.add(key);
+            sentPriorities.add(priority);
+            return calculator.apply(request, key);
+        };
+        var controller = CalculatorControllerTest.controllerOver(transport, new RequestMetrics(new SimpleMeterRegistry()),
+            recordKey, STREAM_WINDOW);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+            .addService(new CalculatorGrpcService(controller, STREAM_WINDOW).definition())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        return CalculatorGrpc.newBlockingStub(channel);
+    }
+
+    private static CalculateRequest request(long id, String a, String b, Operation operation) {
+        return CalculateRequest.newBuilder().setId(id).setA(a).setB(b).setOperation(operation).build();
+    }
+
+    @Test
+    void calculate_ValidRequest_ReturnsResult() throws Exception {
+        CalculateResponse response = start().calculate(request(7, "10.5", "2.5", Operation.SUM));
+
+        assertThat(response.getId()).isEqualTo(7);
+        assertThat(response.getResult()).isEqualTo("13.0");
+        assertThat(response.getError()).isEmpty();
+    }
+
+    @Test
+    void calculate_MissingOperation_FailsWithRestValidationMessage() throws Exception {
+        var stub = start();
+
+        assertThatThrownBy(() -> stub.calculate(request(1, "1", "2", Operation.OPERATION_UNSPECIFIED)))
+            .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+                assertThat(e.getStatus().getDescription()).isEqualTo("Operation cannot be null");
+            });
+        assertThat(sentKeys).isEmpty();
+    }
+
+    @Test
+    void calculate_InvalidNumber_FailsWithInvalidArgument() throws Exception {
+        var stub = start();
+
+        assertThatThrownBy(() -> stub.calculate(request(1, "ten", "2", Operation.SUM)))
+            .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+                assertThat(e.getStatus().getDescription()).isEqualTo("Invalid number: ten");
+            });
+    }
+
+    @Test
+    void calculate_CalculatorError_FailsWithRestErrorMessage() throws Exception {
+        calculator = (request, key) -> CompletableFuture.failedFuture(new RuntimeException("Division by zero"));
+        var stub = start();
+
+        assertThatThrownBy(() -> stub.calculate(request(1, "1", "0", Operation.DIVISION)))
+            .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+                assertThat(e.getStatus().getDescription()).isEqualTo("java.lang.RuntimeException: Division by zero");
+            });
+    }
+
+    @Test
+    void calculate_TooManyInFlight_FailsWithUnavailable() throws Exception {
+        calculator = (request, key) -> {
+            throw new RejectedExecutionException("Too many requests in flight");
+        };
+        var stub = start();
+
+        assertThatThrownBy(() -> stub.calculate(request(1, "1", "2", Operation.SUM)))
+            .isInstanceOfSatisfying(StatusRuntimeException.class,
+                e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE));
+    }
+
+    @Test
+    void calculate_ClientRecordKey_KeysByClientMetadata() throws Exception {
+        recordKey = RecordKey.CLIENT;
+        Metadata headers = new Metadata();
+        headers.put(CalculatorGrpcService.CLIENT_HEADER, "client-42");
+
+        start().withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+            .calculate(request(1, "1", "2", Operation.SUM));
+
+        assertThat(sentKeys).containsExactly("client-42");
+    }
+
+    @Test
+    void calculate_PriorityMetadata_PicksLane() throws Exception {
+        Metadata headers = new Metadata();
+        headers.put(CalculatorGrpcService.PRIORITY_HEADER, "batch");
+        var stub = start();
+
+        stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+            .calculate(request(1, "1", "2", Operation.SUM));
+        stub.calculate(request(2, "3", "4", Operation.SUM));
+
+        assertThat(sentPriorities).containsExactly(Priority.BATCH, Priority.INTERACTIVE);
+    }
+
+    @Test
+    void calculateStream_AnswersEveryRequestById() throws Exception {
+        start();
+        var replies = new ConcurrentLinkedQueue<CalculateResponse>();
+        var done = new CountDownLatch(1);
+
+        StreamObserver<CalculateRequest> requests = CalculatorGrpc.newStub(channel).calculateStream(collect(replies, done));
+        requests.onNext(request(1, "1", "2", Operation.SUM));
+        requests.onNext(request(2, "", "2", Operation.SUM));
+        requests.onNext(request(3, "40", "2", Operation.SUM));
+        requests.onCompleted();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        Map<Long, CalculateResponse> byId = replies.stream()
+            .collect(Collectors.toMap(CalculateResponse::getId, reply -> reply));
+        assertThat(byId).hasSize(3);
+        assertThat(byId.get(1L).getResult()).isEqualTo("3");
+        assertThat(byId.get(2L).getError()).isEqualTo("First number cannot be null");
+        assertThat(byId.get(3L).getResult()).isEqualTo("42");
+    }
+
+    @Test
+    void calculateStream_SlowCalculator_BoundsRequestsInFlight() throws Exception {
+        var inFlight = new ConcurrentLinkedQueue<CompletableFuture<CalculationResponse>>();
+        calculator = (request, key) -> {
+            var future = new CompletableFuture<CalculationResponse>();
+            inFlight.add(future);
+            return future;
+        };
+        start();
+        var replies = new ConcurrentLinkedQueue<CalculateResponse>();
+        var done = new CountDownLatch(1);
+
+        StreamObserver<CalculateRequest> requests = CalculatorGrpc.newStub(channel).calculateStream(collect(replies, done));
+        // distinct operands, so that none of them joins another's calculation
+        for (long id = 1; id <= 5; id++) {
+            requests.onNext(request(id, String.valueOf(id), "0", Operation.SUM));
+        }
+        requests.onCompleted();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sentKeys.size() == STREAM_WINDOW);
+        Thread.sleep(200);
+        assertThat(sentKeys).hasSize(STREAM_WINDOW);
+        for (int answered = 0; answered < 5; answered++) {
+            await().atMost(Duration.ofSeconds(5)).until(() -> !inFlight.isEmpty());
+            inFlight.poll().complete(new CalculationResponse(null, BigDecimal.ONE, null));
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(replies).extracting(CalculateResponse::getResult).isEqualTo(List.of("1", "1", "1", "1", "1"));
+    }
+
+    private static StreamObserver<CalculateResponse> collect(Queue<CalculateResponse> replies, CountDownLatch done) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(CalculateResponse value) {
+                replies.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.calculatorapi.control;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void tryAcquire_AtLimit_Rejects() {
+        var limiter = new ConcurrencyLimiter(2, 1, 10, 100, 0.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.rejections()).isEqualTo(1);
+    }
+
+    @Test
+    void release_FastRoundTripsWithLimitInUse_RaiseLimitByOne() {
+        var limiter = new ConcurrencyLimiter(2, 1, 10, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void release_FastRoundTripsWithLimitMostlyIdle_KeepLimit() {
+        var limiter = new ConcurrencyLimiter(10, 1, 20, 100, 0.5);
+        limiter.tryAcquire();
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_SlowOrDropped_BacksOffMultiplicatively() {
+        var limiter = new ConcurrencyLimiter(40, 1, 100, 100, 0.5);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertThat(limiter.limit()).isEqualTo(20);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_StaysWithinBounds() {
+        var limiter = new ConcurrencyLimiter(3, 2, 4, 100, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void bindTo_RegistersLimitMeters() {
+        var limiter = new ConcurrencyLimiter(5, 1, 10, 100, 0.5);
+        var registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        limiter.tryAcquire();
+
+        assertThat(registry.get("rest.limit.current").gauge().value()).isEqualTo(5);
+        assertThat(registry.get("rest.limit.in-flight").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("rest.limit.rejected").functionCounter().count()).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.calculatorapi.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdsTest {
+
+    @Test
+    void next_givesDistinctIdsInUuidForm() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String id = CorrelationIds.next();
+            assertThat(UUID.fromString(id).toString()).isEqualTo(id);
+            ids.add(id);
+        }
+
+        assertThat(ids).hasSize(1000);
+    }
+
+    @Test
+    void key_ownId_givesItsSequence() {
+        String first = CorrelationIds.next();
+        String second = CorrelationIds.next();
+
+        assertThat(CorrelationIds.key(first)).isPositive();
+        assertThat(CorrelationIds.key(second)).isGreaterThan(CorrelationIds.key(first));
+        assertThat(CorrelationIds.key(second)).isEqualTo(UUID.fromString(second).getLeastSignificantBits());
+    }
+
+    @Test
+    void key_foreignOrMalformedId_givesMinusOne() {
+        String own = CorrelationIds.next();
+
+        assertThat(CorrelationIds.key(UUID.randomUUID().toString())).isEqualTo(-1);
+        assertThat(CorrelationIds.key(own.substring(0, 35) + "x")).isEqualTo(-1);
+        assertThat(CorrelationIds.key(own.substring(0, 35))).isEqualTo(-1);
+        assertThat(CorrelationIds.key("unknown")).isEqualTo(-1);
+        assertThat(CorrelationIds.key(null)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.Operation;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrontCacheTest {
+
+    private final FrontCache frontCache = new FrontCache(new ResultCache("test", 100, Duration.ofMinutes(1)),
+        10, RoundingMode.HALF_UP, 1, RoundingMode.HALF_UP);
+
+    @Test
+    void get_multiplicationMatchesEqualOperands() {
+        frontCache.put(new RestCalculationRequest(new BigDecimal("2.50"), new BigDecimal("2"), Operation.MULTIPLICATION),
+            new BigDecimal("5.0"));
+
+        assertThat(frontCache.get(new RestCalculationRequest(new BigDecimal("2.5"), new BigDecimal("2.0"), Operation.MULTIPLICATION)))
+            .isEqualTo(new BigDecimal("5.0"));
+    }
+
+    @Test
+    void get_sumKeepsOperandScale() {
+        frontCache.put(new RestCalculationRequest(new BigDecimal("2.0"), new BigDecimal("3"), Operation.SUM), new BigDecimal("5.0"));
+
+        assertThat(frontCache.get(new RestCalculationRequest(new BigDecimal("2"), new BigDecimal("3"), Operation.SUM))).isNull();
+        assertThat(frontCache.get(new RestCalculationRequest(new BigDecimal("2.0"), new BigDecimal("3"), Operation.SUBTRACTION))).isNull();
+    }
+
+    @Test
+    void disabled_neverHits() {
+        var disabled = FrontCache.disabled();
+        var request = new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ONE, Operation.SUM);
+        disabled.put(request, new BigDecimal("2"));
+
+        assertThat(disabled.enabled()).isFalse();
+        assertThat(disabled.get(request)).isNull();
+    }
+}
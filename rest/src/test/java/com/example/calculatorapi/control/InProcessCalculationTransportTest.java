@@ -0,0 +1,75 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.cache.ResultCache;
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.dto.Operation;
+import com.example.calculatorapi.dto.RestCalculationRequest;
+import com.example.calculatorapi.dto.RestCalculationResponse;
+import com.example.calculatorapi.kafka.Priority;
+import com.example.calculatorapi.service.CalculationProcessor;
+import com.example.calculatorapi.service.CalculatorMetrics;
+import com.example.calculatorapi.service.CalculatorOperation;
+import com.example.calculatorapi.service.CalculatorOperationFactory;
+import com.example.calculatorapi.service.operations.DivisionOperation;
+import com.example.calculatorapi.service.operations.SumOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InProcessCalculationTransportTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetrics metrics = new RequestMetrics(meterRegistry);
+    private InProcessCalculationTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        List<CalculatorOperation> operations = List.of(new SumOperation(), new DivisionOperation(10, RoundingMode.HALF_UP));
+        var processor = new CalculationProcessor(new CalculatorOperationFactory(operations), ResultCache.disabled(),
+            new CalculatorMetrics(meterRegistry, operations));
+        transport = new InProcessCalculationTransport(processor, metrics);
+    }
+
+    @Test
+    void send_ValidRequest_CompletesWithResult() {
+        CompletableFuture<CalculationResponse> future =
+            transport.send(new CalculationRequest("sum", new BigDecimal("10.5"), new BigDecimal("2.5"), "id-1"), "id-1", Priority.INTERACTIVE);
+
+        assertThat(future).isCompletedWithValue(new CalculationResponse("id-1", new BigDecimal("13.0"), null));
+    }
+
+    @Test
+    void send_CalculatorError_FailsLikeTheKafkaReplyListener() {
+        CompletableFuture<CalculationResponse> future =
+            transport.send(new CalculationRequest("division", BigDecimal.ONE, BigDecimal.ZERO, "id-1"), "id-1", Priority.INTERACTIVE);
+
+        assertThatThrownBy(future::join).hasCauseExactlyInstanceOf(RuntimeException.class)
+            .cause().hasMessage("Division by zero");
+        assertThat(meterRegistry.get("rest.errors").tag("type", "calculation").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void calculate_InProcess_AnswersLikeTheKafkaTransport() {
+        var controller = CalculatorControllerTest.controllerOver(transport, metrics, RecordKey.CORRELATION_ID, 2);
+
+        ResponseEntity<RestCalculationResponse> ok = controller.calculate(
+            new RestCalculationRequest(new BigDecimal("10.5"), new BigDecimal("2.5"), Operation.SUM), null, null).join();
+        ResponseEntity<RestCalculationResponse> failed = controller.calculate(
+            new RestCalculationRequest(BigDecimal.ONE, BigDecimal.ZERO, Operation.DIVISION), null, null).join();
+
+        assertThat(ok.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(ok.getBody()).isEqualTo(new RestCalculationResponse(new BigDecimal("13.0"), null));
+        assertThat(failed.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(failed.getBody()).isEqualTo(new RestCalculationResponse(null, "java.lang.RuntimeException: Division by zero"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.calculatorapi.control;
+
+import com.example.calculatorapi.dto.CalculationRequest;
+import com.example.calculatorapi.dto.CalculationResponse;
+import com.example.calculatorapi.kafka.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimitedCalculationTransportTest {
+
+    private final List<CompletableFuture<CalculationResponse>> sent = new ArrayList<>();
+    private final CalculationTransport slowCalculator = (request, key, priority) -> {
+        var future = new CompletableFuture<CalculationResponse>();
+        sent.add(future);
+        return future;
+    };
+
+    private static CalculationRequest request(String id) {
+        return new CalculationRequest("sum", BigDecimal.ONE, BigDecimal.TWO, id);
+    }
+
+    @Test
+    void send_OverLimit_RejectsWithoutSending() {
+        var limiter = new ConcurrencyLimiter(2, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        transport.send(request("2"), "2", Priority.INTERACTIVE);
+
+        assertThatThrownBy(() -> transport.send(request("3"), "3", Priority.INTERACTIVE))
+            .isInstanceOf(RejectedExecutionException.class)
+            .hasMessage("Concurrency limit reached");
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void send_BatchPriority_IsNotLimited() {
+        var limiter = new ConcurrencyLimiter(1, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        transport.send(request("2"), "2", Priority.BATCH);
+        sent.getLast().completeExceptionally(new TimeoutException());
+
+        assertThat(sent).hasSize(2);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.limit()).isEqualTo(1);
+        assertThat(limiter.rejections()).isZero();
+    }
+
+    @Test
+    void send_Answered_FreesSlot() {
+        var limiter = new ConcurrencyLimiter(1, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        sent.getFirst().complete(new CalculationResponse("1", BigDecimal.valueOf(3), null));
+
+        assertThat(limiter.inFlight()).isZero();
+        transport.send(request("2"), "2", Priority.INTERACTIVE);
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void send_TimedOut_BacksOff() {
+        var limiter = new ConcurrencyLimiter(8, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        sent.getFirst().completeExceptionally(new TimeoutException());
+
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void send_SendFailed_BacksOff() {
+        var limiter = new ConcurrencyLimiter(8, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        sent.getFirst().completeExceptionally(new KafkaException("Broker unavailable"));
+
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void send_ProducerFailed_BacksOff() {
+        var limiter = new ConcurrencyLimiter(8, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        transport.send(request("1"), "1", Priority.INTERACTIVE);
+        sent.getFirst().completeExceptionally(new CompletionException(
+            new org.apache.kafka.common.errors.TimeoutException("Topic calc-requests not present in metadata")));
+
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void send_ErrorReply_KeepsLimit() {
+        var limiter = new ConcurrencyLimiter(8, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport(slowCalculator, limiter);
+
+        for (int i = 0; i < 5; i++) {
+            transport.send(request(String.valueOf(i)), String.valueOf(i), Priority.INTERACTIVE);
+            sent.getLast().completeExceptionally(new RuntimeException("Division by zero"));
+        }
+
+        assertThat(limiter.limit()).isEqualTo(8);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void send_TransportRejects_ReleasesSlot() {
+        var limiter = new ConcurrencyLimiter(8, 1, 10, 1000, 0.5);
+        var transport = new LimitedCalculationTransport((request, key, priority) -> {
+            throw new RejectedExecutionException("Too many requests in flight");
+        }, limiter);
+
+        assertThatThrownBy(() -> transport.send(request("1"), "1", Priority.INTERACTIVE)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
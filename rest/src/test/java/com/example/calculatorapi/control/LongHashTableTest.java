@@ -0,0 +1,66 @@
+package com.example.calculatorapi.control;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashTableTest {
+
+    @Test
+    void putGetRemove_singleKey() {
+        LongHashTable<String> table = new LongHashTable<>(16);
+
+        assertThat(table.put(7, "a")).isNull();
+        assertThat(table.put(7, "b")).isEqualTo("a");
+        assertThat(table.get(7)).isEqualTo("b");
+        assertThat(table.size()).isEqualTo(1);
+
+        assertThat(table.remove(7)).isEqualTo("b");
+        assertThat(table.get(7)).isNull();
+        assertThat(table.remove(7)).isNull();
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void put_beyondCapacity_growsAndKeepsEveryEntry() {
+        LongHashTable<Long> table = new LongHashTable<>(1);
+
+        for (long key = 1; key <= 10_000; key++) {
+            table.put(key, key);
+        }
+
+        assertThat(table.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(table.get(key)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void remove_interleaved_leavesTheOtherKeysReachable() {
+        LongHashTable<Long> table = new LongHashTable<>(64);
+        for (long key = 1; key <= 5_000; key++) {
+            table.put(key, key);
+        }
+
+        for (long key = 1; key <= 5_000; key += 2) {
+            assertThat(table.remove(key)).isEqualTo(key);
+        }
+
+        assertThat(table.size()).isEqualTo(2_500);
+        for (long key = 1; key <= 5_000; key++) {
+            assertThat(table.get(key)).isEqualTo(key % 2 == 0 ? key : null);
+        }
+    }
+
+    @Test
+    void remove_withValue_onlyRemovesThatValue() {
+        LongHashTable<String> table = new LongHashTable<>(16);
+        String value = new String("v");
+        table.put(3, value);
+
+        assertThat(table.remove(3, new String("v"))).isFalse();
+        assertThat(table.get(3)).isSameAs(value);
+        assertThat(table.remove(3, value)).isTrue();
+        assertThat(table.get(3)).isNull();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.calculatorapi.control;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PendingRequestsTest {
+
+    private final String id1 = CorrelationIds.next();
+    private final String id2 = CorrelationIds.next();
+    private final String id3 = CorrelationIds.next();
+    private PendingRequests<String> pending;
+
+    @AfterEach
+    void tearDown() {
+        pending.close();
+    }
+
+    @Test
+    void complete_registeredId_completesFutureOnce() {
+        pending = new PendingRequests<>("test", 1000, 10, 10);
+        CompletableFuture<String> future = pending.register(id1);
+
+        assertThat(pending.complete(id1, "reply")).isTrue();
+        assertThat(pending.complete(id1, "duplicate")).isFalse();
+
+        assertThat(future).isCompletedWithValue("reply");
+        assertThat(pending.size()).isZero();
+        assertThat(pending.orphanReplies()).isEqualTo(1);
+    }
+
+    @Test
+    void complete_answeredEntry_letsGoOfItsFutureBeforeItsDeadline() throws InterruptedException {
+        pending = new PendingRequests<>("test", 60_000, 10, 10);
+        WeakReference<CompletableFuture<String>> future = new WeakReference<>(pending.register(id1));
+
+        pending.complete(id1, "reply");
+
+        for (int i = 0; i < 50 && future.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(future.get()).isNull();
+    }
+
+    @Test
+    void register_slowTimeoutContinuation_doesNotDelayOtherTimeouts() throws InterruptedException {
+        pending = new PendingRequests<>("test", 100, 10, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        pending.register(id1).whenComplete((value, e) -> {
+            try {
+                release.await();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(20);
+        CompletableFuture<String> later = pending.register(id2);
+
+        try {
+            assertThat(later)
+                .failsWithin(1, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void register_noReply_failsWithTimeoutAndCountsLateReply() {
+        pending = new PendingRequests<>("test", 100, 10, 10);
+        CompletableFuture<String> future = pending.register(id1);
+
+        assertThat(future)
+            .failsWithin(1, TimeUnit.SECONDS)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(TimeoutException.class);
+        assertThat(pending.size()).isZero();
+        assertThat(pending.timeouts()).isEqualTo(1);
+
+        assertThat(pending.complete(id1, "late")).isFalse();
+        assertThat(pending.lateReplies()).isEqualTo(1);
+        assertThat(pending.orphanReplies()).isZero();
+    }
+
+    @Test
+    void register_timeout_expiresNoEarlierThanConfigured() {
+        pending = new PendingRequests<>("test", 200, 10, 10);
+        long start = System.nanoTime();
+        CompletableFuture<String> future = pending.register(id1);
+
+        assertThat(future).failsWithin(1, TimeUnit.SECONDS);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    void register_capacityReached_rejectsUntilAnEntryCompletes() {
+        pending = new PendingRequests<>("test", 1000, 10, 2);
+        pending.register(id1);
+        pending.register(id2);
+
+        assertThatThrownBy(() -> pending.register(id3))
+            .isInstanceOf(RejectedExecutionException.class)
+            .hasMessage("Too many requests in flight");
+        assertThat(pending.rejections()).isEqualTo(1);
+
+        pending.complete(id1, "reply");
+        assertThat(pending.register(id3)).isNotDone();
+        assertThat(pending.size()).isEqualTo(2);
+    }
+
+    @Test
+    void register_manyInFlight_allExpireAndNothingIsRetained() {
+        int inFlight = 100_000;
+        pending = new PendingRequests<>("test", 2000, 10, inFlight);
+        List<CompletableFuture<String>> futures = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            futures.add(pending.register(CorrelationIds.next()));
+        }
+        assertThat(pending.size()).isEqualTo(inFlight);
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .handle((result, e) -> null)
+            .orTimeout(10, TimeUnit.SECONDS)
+            .join();
+
+        assertThat(futures).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(pending.size()).isZero();
+        assertThat(pending.timeouts()).isEqualTo(inFlight);
+    }
+
+    @Test
+    void complete_reportsReplyLatencyAndBindsMeters() throws InterruptedException {
+        AtomicLong latency = new AtomicLong();
+        pending = new PendingRequests<>("test", 1000, 10, 10, latency::set);
+        var registry = new SimpleMeterRegistry();
+        pending.bindTo(registry);
+
+        pending.register(id1);
+        pending.register(id2);
+        Thread.sleep(20);
+        pending.complete(id1, "reply");
+        pending.complete("unknown", "reply");
+
+        assertThat(latency.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(registry.get("rest.requests.pending").tag("registry", "test").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("rest.replies.orphan").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void register_foreignId_isRefused() {
+        pending = new PendingRequests<>("test", 1000, 10, 10);
+
+        assertThatThrownBy(() -> pending.register("3f2b9c1e-8d4a-4c7b-9e61-2a5d7f0b4c18"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(pending.size()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.calculatorapi.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>(5000);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private CompletableFuture<String> call(CompletableFuture<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+
+    @Test
+    void execute_sharesInFlightCallAndReleasesKeyOnCompletion() {
+        var shared = new CompletableFuture<String>();
+
+        var leader = flights.execute("k", () -> call(shared));
+        var follower = flights.execute("k", () -> call(new CompletableFuture<>()));
+        var other = flights.execute("other", () -> call(new CompletableFuture<>()));
+
+        assertThat(calls).hasValue(2);
+        assertThat(flights.joined()).isEqualTo(1);
+        shared.complete("result");
+
+        assertThat(leader.join()).isEqualTo("result");
+        assertThat(follower.join()).isEqualTo("result");
+        assertThat(other).isNotDone();
+        assertThat(flights.size()).isEqualTo(1);
+
+        flights.execute("k", () -> call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void execute_followerGetsLeadersFailure() {
+        var shared = new CompletableFuture<String>();
+        flights.execute("k", () -> call(shared));
+        var follower = flights.execute("k", () -> call(new CompletableFuture<>()));
+
+        shared.completeExceptionally(new IllegalStateException("Division by zero"));
+
+        assertThat(follower).isCompletedExceptionally();
+        follower.exceptionally(e -> {
+            assertThat(e).isInstanceOf(IllegalStateException.class);
+            return null;
+        }).join();
+        assertThat(flights.size()).isZero();
+    }
+
+    @Test
+    void execute_leaderTimesOut_followerRunsItsOwnCall() {
+        var shared = new CompletableFuture<String>();
+        var retried = new CompletableFuture<String>();
+        var leader = flights.execute("k", () -> call(shared));
+        var follower = flights.execute("k", () -> call(retried));
+
+        shared.completeExceptionally(new TimeoutException());
+
+        assertThat(leader).isCompletedExceptionally();
+        assertThat(follower).isNotDone();
+        assertThat(calls).hasValue(2);
+        retried.complete("result");
+        assertThat(follower.join()).isEqualTo("result");
+        assertThat(flights.size()).isZero();
+    }
+
+    @Test
+    void execute_leaderTimesOut_followersShareTheRetry() {
+        var shared = new CompletableFuture<String>();
+        var retried = new CompletableFuture<String>();
+        flights.execute("k", () -> call(shared));
+        var first = flights.execute("k", () -> call(retried));
+        var second = flights.execute("k", () -> call(retried));
+
+        shared.completeExceptionally(new TimeoutException());
+        retried.complete("result");
+
+        assertThat(calls).hasValue(2);
+        assertThat(first.join()).isEqualTo("result");
+        assertThat(second.join()).isEqualTo("result");
+    }
+
+    @Test
+    void execute_followerTimesOutOnItsOwn() {
+        var shortFlights = new SingleFlight<String, String>(50);
+        var shared = new CompletableFuture<String>();
+        var leader = shortFlights.execute("k", () -> shared);
+        var follower = shortFlights.execute("k", CompletableFuture::new);
+
+        assertThatThrownBy(follower::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(leader).isNotDone();
+        shared.complete("result");
+        assertThat(leader.join()).isEqualTo("result");
+    }
+
+    @Test
+    void execute_callThrows_releasesKey() {
+        assertThatThrownBy(() -> flights.execute("k", () -> {
+            throw new RejectedExecutionException("Too many requests in flight");
+        })).isInstanceOf(RejectedExecutionException.class);
+
+        assertThat(flights.size()).isZero();
+        flights.execute("k", () -> call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(1);
+    }
+}